@@ -0,0 +1,78 @@
+package com.cjj.es;
+
+import com.cjj.es.entity.Article;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试数据生成
+ * 生成接近线上文章的HTML内容：中英文混排段落、标签属性、实体、脚本/样式块，正文约3~6KB
+ */
+public final class BenchmarkArticles {
+
+    private static final String[] SENTENCES = {
+            "Elasticsearch是一个分布式的搜索和分析引擎，适用于全文检索场景。",
+            "IK分词器针对中文提供了ik_max_word和ik_smart两种切分粒度。",
+            "Kafka作为消息中间件承担数据库与索引之间的解耦与削峰。",
+            "The bulk API makes it possible to perform many index operations in a single call.",
+            "批量写入时需要关注请求体大小、并发数以及集群的拒绝队列。",
+            "Use keyset pagination instead of deep offsets when scanning large tables.",
+    };
+
+    private BenchmarkArticles() {
+    }
+
+    /**
+     * 生成一篇文章的HTML正文
+     */
+    public static String html(Random random) {
+        StringBuilder html = new StringBuilder(6144);
+        html.append("<div class=\"article-body\" data-id=\"").append(random.nextInt(100000)).append("\">\n");
+        html.append("<style type=\"text/css\">.article-body p { margin: 0 0 1em; }</style>\n");
+        int paragraphs = 8 + random.nextInt(8);
+        for (int p = 0; p < paragraphs; p++) {
+            html.append("<p>");
+            int sentences = 2 + random.nextInt(4);
+            for (int s = 0; s < sentences; s++) {
+                String sentence = SENTENCES[random.nextInt(SENTENCES.length)];
+                if (random.nextInt(4) == 0) {
+                    html.append("<strong>").append(sentence).append("</strong>");
+                } else {
+                    html.append(sentence);
+                }
+                html.append(random.nextBoolean() ? "&nbsp;" : " ");
+            }
+            if (random.nextInt(3) == 0) {
+                html.append("<a href=\"https://example.com/doc?id=").append(p).append("&amp;ref=1\">参考&lt;").append(p)
+                        .append("&gt;</a>");
+            }
+            html.append("</p>\n");
+            if (random.nextInt(5) == 0) {
+                html.append("<img src=\"/img/").append(p).append(".png\" alt=\"示意图\"/>\n");
+            }
+        }
+        html.append("<!-- 统计代码 --><script>window.dataLayer = window.dataLayer || []; var a = 1 < 2;</script>\n");
+        html.append("</div>");
+        return html.toString();
+    }
+
+    /**
+     * 生成指定数量的文章
+     */
+    public static List<Article> articles(int count) {
+        Random random = new Random(42);
+        List<Article> articles = new ArrayList<>(count);
+        long now = 1700000000000L;
+        for (int i = 0; i < count; i++) {
+            Article article = new Article((long) (i + 1), "第" + (i + 1) + "篇：" + SENTENCES[i % SENTENCES.length],
+                    html(random));
+            article.setCreateTime(now - 86400000L + i);
+            article.setUpdateTime(now + i);
+            article.setCategory(1 + (i & 1));
+            articles.add(article);
+        }
+        return articles;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cjj.es.codec;
+
+import com.cjj.es.BenchmarkArticles;
+import com.cjj.es.entity.Article;
+import com.cjj.es.entity.SyncEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * es_sync_topic消息编解码基准
+ * 对比原有的JsonSerializer/JsonDeserializer（Map消息+类型头）与SyncEvent二进制编码
+ * 每条消息的字节数在Trial开始时打印；分配量可追加 -Djmh.args="-prof gc" 查看gc.alloc.rate.norm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyncEventCodecBenchmark {
+
+    private static final String TOPIC = "es_sync_topic";
+
+    @Param({"100", "1000", "10000"})
+    private int articles;
+
+    private Map<String, Object> jsonMessage;
+    private SyncEvent event;
+
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+    private final SyncEventSerializer binarySerializer = new SyncEventSerializer();
+    private final SyncEventDeserializer binaryDeserializer = new SyncEventDeserializer();
+
+    private RecordHeaders jsonHeaders;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Article> data = BenchmarkArticles.articles(articles);
+
+        // 与改造前ESService.sendToKafka相同的消息结构
+        jsonMessage = new HashMap<>();
+        jsonMessage.put("operation", "bulk_index");
+        jsonMessage.put("index", "article_index");
+        jsonMessage.put("data", data);
+        jsonMessage.put("timestamp", System.currentTimeMillis());
+        event = SyncEvent.ofArticles("article_index", data);
+
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        // 基准中重复解码同一条消息，保留类型头
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+
+        jsonHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, jsonMessage);
+        binaryBytes = binarySerializer.serialize(TOPIC, event);
+
+        long[] aids = new long[articles];
+        for (int i = 0; i < articles; i++) {
+            aids[i] = data.get(i).getAid();
+        }
+        System.out.println();
+        System.out.println("bytes/msg (articles=" + articles + "): json=" + jsonBytes.length +
+                ", binary=" + binaryBytes.length +
+                ", binary ids=" + binarySerializer.serialize(TOPIC, SyncEvent.ofIds("article_index", aids)).length +
+                ", binary range=" + binarySerializer.serialize(TOPIC,
+                SyncEvent.ofRange("article_index", aids[0], aids[articles - 1])).length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), jsonMessage);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, jsonBytes);
+    }
+
+    @Benchmark
+    public SyncEvent decodeBinary() {
+        return binaryDeserializer.deserialize(TOPIC, binaryBytes);
+    }
+}
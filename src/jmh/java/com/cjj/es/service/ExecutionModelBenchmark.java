@@ -0,0 +1,96 @@
+package com.cjj.es.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 执行模型基准：高并发单文档同步负载下平台线程池与虚拟线程+信号量的对比
+ * 每个请求以睡眠模拟一次阻塞的数据库回查和ES写入往返（latencyMicros），并发上限均为permits：
+ * platform为permits个平台线程（当前线程池模型），virtual为每个请求一个虚拟线程、信号量限制同时阻塞的请求数。
+ * 吞吐量为每秒完成的请求数；每轮迭代结束时打印平台线程峰值与堆使用量（虚拟线程栈分配在堆上），
+ * 分配量可追加 -Djmh.args="-prof gc" 查看。需要Java 21及以上运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ExecutionModelBenchmark {
+
+    // 每次调用提交的请求数
+    private static final int REQUESTS = 10_000;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"64", "1024"})
+    private int permits;
+
+    @Param({"2000"})
+    private long latencyMicros;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private ExecutorService executor;
+    private Semaphore semaphore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(mode)
+                ? SyncExecutors.newVirtualExecutor("bench-virtual-")
+                : SyncExecutors.newPlatformExecutor("bench-platform-", permits);
+        semaphore = new Semaphore(permits);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printFootprint() {
+        System.out.println();
+        System.out.println("mode=" + mode + " permits=" + permits
+                + " peakPlatformThreads=" + threads.getPeakThreadCount()
+                + " heapUsedMB=" + memory.getHeapMemoryUsage().getUsed() / (1024 * 1024));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void singleDocSync() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.execute(() -> {
+                try {
+                    semaphore.acquire();
+                    try {
+                        // 模拟阻塞的数据库回查与ES写入往返
+                        TimeUnit.MICROSECONDS.sleep(latencyMicros);
+                    } finally {
+                        semaphore.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,120 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.NdJsonpSerializable;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.cjj.es.BenchmarkArticles;
+import com.cjj.es.entity.Article;
+import com.cjj.es.entity.ArticleDocument;
+import jakarta.json.stream.JsonGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入链路基准：文档构建 -> BulkRequest构建 -> NDJSON序列化
+ * 序列化方式与传输层发送Bulk请求时一致（JacksonJsonpMapper逐行写出操作头和文档）；
+ * 每批请求体字节数在Trial开始时打印，分配量可追加 -Djmh.args="-prof gc" 查看
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexingPipelineBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int docs;
+
+    private final ESService esService = new ESService();
+    private final JsonpMapper mapper = new JacksonJsonpMapper();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1 << 20);
+
+    private List<Article> articles;
+    private List<ArticleDocument> documents;
+    private BulkRequest bulkRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        articles = BenchmarkArticles.articles(docs);
+        documents = new ArrayList<>(docs);
+        for (Article article : articles) {
+            documents.add(esService.buildESDocument(article));
+        }
+        bulkRequest = toBulkRequest(documents);
+
+        System.out.println();
+        System.out.println("bulk body bytes (docs=" + docs + "): " + serialize(bulkRequest));
+    }
+
+    @Benchmark
+    public void buildDocuments(Blackhole blackhole) {
+        for (Article article : articles) {
+            blackhole.consume(esService.buildESDocument(article));
+        }
+    }
+
+    @Benchmark
+    public BulkRequest buildBulkRequest() {
+        return toBulkRequest(documents);
+    }
+
+    @Benchmark
+    public int serializeBulkRequest() {
+        return serialize(bulkRequest);
+    }
+
+    @Benchmark
+    public int endToEnd() {
+        List<ArticleDocument> built = new ArrayList<>(articles.size());
+        for (Article article : articles) {
+            built.add(esService.buildESDocument(article));
+        }
+        return serialize(toBulkRequest(built));
+    }
+
+    private static BulkRequest toBulkRequest(List<ArticleDocument> documents) {
+        List<BulkOperation> operations = new ArrayList<>(documents.size());
+        for (ArticleDocument document : documents) {
+            String id = String.valueOf(document.aid());
+            operations.add(BulkOperation.of(op -> op.index(idx -> idx
+                    .index(ArticleIndexManager.ALIAS)
+                    .id(id)
+                    .document(document))));
+        }
+        return BulkRequest.of(b -> b.operations(operations));
+    }
+
+    /**
+     * 按传输层的方式写出NDJSON请求体
+     * @return 请求体字节数
+     */
+    private int serialize(BulkRequest request) {
+        body.reset();
+        writeLines(request);
+        return body.size();
+    }
+
+    private void writeLines(NdJsonpSerializable value) {
+        Iterator<?> values = value._serializables();
+        while (values.hasNext()) {
+            Object item = values.next();
+            if (item instanceof NdJsonpSerializable nested && item != value) {
+                writeLines(nested);
+            } else {
+                JsonGenerator generator = mapper.jsonProvider().createGenerator(body);
+                mapper.serialize(item, generator);
+                generator.close();
+                body.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.cjj.es.util;
+
+import com.cjj.es.BenchmarkArticles;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 正文HTML清理基准
+ * 对比改造前ESService.removeHtmlTags的正则+链式replace实现与单次遍历的HtmlTextCleaner；
+ * 分配量追加 -Djmh.args="-prof gc" 查看gc.alloc.rate.norm（bytes/op）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlTextCleanerBenchmark {
+
+    private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]+>");
+
+    private String[] documents;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        documents = new String[64];
+        long chars = 0;
+        for (int i = 0; i < documents.length; i++) {
+            documents[i] = BenchmarkArticles.html(random);
+            chars += documents[i].length();
+        }
+        System.out.println();
+        System.out.println("average html length: " + chars / documents.length + " chars");
+    }
+
+    private String nextDocument() {
+        next = (next + 1) & (documents.length - 1);
+        return documents[next];
+    }
+
+    @Benchmark
+    public String legacyRegex() {
+        return legacyRemoveHtmlTags(nextDocument());
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return HtmlTextCleaner.clean(nextDocument());
+    }
+
+    /**
+     * 改造前的实现，原样保留作为基准
+     */
+    static String legacyRemoveHtmlTags(String htmlContent) {
+        if (htmlContent == null || htmlContent.trim().isEmpty()) {
+            return "";
+        }
+
+        String cleanContent = HTML_TAG_PATTERN.matcher(htmlContent).replaceAll("");
+        cleanContent = cleanContent.replaceAll("\\s+", " ").trim();
+        cleanContent = cleanContent.replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&")
+                .replace("&quot;", "\"");
+
+        return cleanContent;
+    }
+}
@@ -3,10 +3,14 @@ package com.cjj.es;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.elasticsearch.ElasticsearchRestClientAutoConfiguration;
 import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication(exclude = {KafkaAutoConfiguration.class})
+// ES的RestClient及嗅探器由ElasticsearchConfig统一创建
+@SpringBootApplication(exclude = {KafkaAutoConfiguration.class, ElasticsearchRestClientAutoConfiguration.class})
 @MapperScan("com.cjj.es.mapper")
+@EnableScheduling
 public class EsTest1Application {
 
     public static void main(String[] args) {
@@ -0,0 +1,42 @@
+package com.cjj.es.api;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 文章同步Dubbo接口
+ * 上游服务写库后调用，触发数据同步到ES；
+ * 所有方法返回CompletableFuture，服务端不在RPC线程上等待ES写入，调用方可异步等待结果；
+ * 失败以返回值中的字段表示，Future不以异常结束
+ */
+public interface ArticleSyncApi {
+
+    /**
+     * 全量同步数据到ES
+     * 任务提交后立即返回，不等待同步结束；已有全量同步在执行时返回失败及执行中的任务
+     * @return 提交结果：success、message、jobId及任务状态job（与GET /init/es/jobs/{jobId}一致）
+     */
+    CompletableFuture<Map<String, Object>> syncAll();
+
+    /**
+     * 查询全量同步任务进度
+     * @param jobId syncAll返回的任务ID
+     * @return 查询结果：success及任务状态job，任务不存在时success为false
+     */
+    CompletableFuture<Map<String, Object>> getSyncJob(String jobId);
+
+    /**
+     * 批量同步文章到ES
+     * 按aid回查数据库后批量写入，已软删除或数据库中已不存在的文章从ES删除
+     * @param aids 文章ID
+     * @return 同步结果：成功写入数、写入失败的文章ID及失败原因
+     */
+    CompletableFuture<SyncDocsResult> syncDocs(long[] aids);
+
+    /**
+     * 同步单个文档到ES
+     * @param aid 文章ID
+     * @return 是否写入成功（文章不存在或写入失败时为false）
+     */
+    CompletableFuture<Boolean> syncDoc(Long aid);
+}
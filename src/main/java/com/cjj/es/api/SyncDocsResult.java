@@ -0,0 +1,107 @@
+package com.cjj.es.api;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 批量同步结果
+ * ArticleSyncApi.syncDocs的返回值，失败信息以字段返回而不是以异常结束Future，经Triple协议传输时不会丢失
+ */
+public class SyncDocsResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否全部写入成功
+     */
+    private boolean success;
+
+    /**
+     * 去重后请求同步的文章数
+     */
+    private int requested;
+
+    /**
+     * ES确认写入成功的文档数（含删除）
+     */
+    private int successCount;
+
+    /**
+     * 写入失败的文章ID，调用方可据此重试
+     */
+    private long[] failedAids;
+
+    /**
+     * 失败原因，全部成功时为空
+     */
+    private String message;
+
+    public SyncDocsResult() {
+    }
+
+    public SyncDocsResult(boolean success, int requested, int successCount, long[] failedAids, String message) {
+        this.success = success;
+        this.requested = requested;
+        this.successCount = successCount;
+        this.failedAids = failedAids;
+        this.message = message;
+    }
+
+    /**
+     * 整批失败的结果，全部请求的文章计为失败
+     */
+    public static SyncDocsResult failure(long[] aids, String message) {
+        return new SyncDocsResult(false, aids.length, 0, aids, message);
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(int successCount) {
+        this.successCount = successCount;
+    }
+
+    public long[] getFailedAids() {
+        return failedAids;
+    }
+
+    public void setFailedAids(long[] failedAids) {
+        this.failedAids = failedAids;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncDocsResult{" +
+                "success=" + success +
+                ", requested=" + requested +
+                ", successCount=" + successCount +
+                ", failedAids=" + Arrays.toString(failedAids) +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,365 @@
+package com.cjj.es.codec;
+
+import com.cjj.es.entity.Article;
+import com.cjj.es.entity.SyncEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SyncEvent二进制编解码器
+ * 格式固定、无类型头，整数使用ZigZag变长编码，aid列表按差值编码；
+ * 解码直接从字节数组构造对象，不经过反射和中间Map
+ *
+ * 消息格式（版本1）：
+ * magic(1) version(1) operation(1) timestamp(8) index(string) payload
+ *   BULK_INDEX_RANGE: startAid(varlong) endAid-startAid(varlong)
+ *   BULK_INDEX_IDS:   count(varint) aid差值(varlong)...
+ *   BULK_INDEX:       count(varint) article...
+ *     article: 字段存在位图(1) aid title content createTime updateTime category deleted（仅写入非空字段）
+ * string: 字节长度(varint) UTF-8字节；null以长度-1表示
+ */
+public final class SyncEventCodec {
+
+    private static final byte MAGIC = (byte) 0xE5;
+    private static final byte VERSION = 1;
+
+    private static final int FIELD_AID = 1;
+    private static final int FIELD_TITLE = 1 << 1;
+    private static final int FIELD_CONTENT = 1 << 2;
+    private static final int FIELD_CREATE_TIME = 1 << 3;
+    private static final int FIELD_UPDATE_TIME = 1 << 4;
+    private static final int FIELD_CATEGORY = 1 << 5;
+    private static final int FIELD_DELETED = 1 << 6;
+
+    // 每个线程复用的编码缓冲区，超过上限的大缓冲区不保留，避免长期占用内存
+    private static final int MAX_RETAINED_BUFFER = 1 << 20;
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(() -> new Output(4096));
+
+    private SyncEventCodec() {
+    }
+
+    /**
+     * 编码同步事件
+     * @param event 同步事件
+     * @return 编码后的字节数组
+     */
+    public static byte[] encode(SyncEvent event) {
+        Output out = OUTPUT.get();
+        out.reset();
+
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(event.getOperation().getCode());
+        out.writeFixedLong(event.getTimestamp());
+        out.writeString(event.getIndex());
+
+        switch (event.getOperation()) {
+            case BULK_INDEX_RANGE -> {
+                out.writeVarLong(event.getStartAid());
+                out.writeVarLong(event.getEndAid() - event.getStartAid());
+            }
+            case BULK_INDEX_IDS -> {
+                long[] aids = event.getAids();
+                out.writeVarInt(aids.length);
+                long previous = 0;
+                for (long aid : aids) {
+                    out.writeVarLong(aid - previous);
+                    previous = aid;
+                }
+            }
+            case BULK_INDEX -> {
+                List<Article> articles = event.getArticles();
+                out.writeVarInt(articles.size());
+                for (Article article : articles) {
+                    writeArticle(out, article);
+                }
+            }
+        }
+
+        byte[] bytes = out.toByteArray();
+        if (out.capacity() > MAX_RETAINED_BUFFER) {
+            OUTPUT.remove();
+        }
+        return bytes;
+    }
+
+    /**
+     * 解码同步事件
+     * @param bytes 编码后的字节数组
+     * @return 同步事件
+     * @throws IllegalArgumentException 数据格式不正确时抛出
+     */
+    public static SyncEvent decode(byte[] bytes) {
+        Input in = new Input(bytes);
+        if (bytes.length < 11 || in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("不是SyncEvent二进制格式的消息");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的SyncEvent版本: " + version);
+        }
+        SyncEvent.Operation operation = SyncEvent.Operation.fromCode(in.readByte());
+        long timestamp = in.readFixedLong();
+        String index = in.readString();
+
+        switch (operation) {
+            case BULK_INDEX_RANGE -> {
+                long startAid = in.readVarLong();
+                long endAid = startAid + in.readVarLong();
+                return new SyncEvent(operation, index, timestamp, null, null, startAid, endAid);
+            }
+            case BULK_INDEX_IDS -> {
+                long[] aids = new long[in.readCount()];
+                long previous = 0;
+                for (int i = 0; i < aids.length; i++) {
+                    previous += in.readVarLong();
+                    aids[i] = previous;
+                }
+                return new SyncEvent(operation, index, timestamp, null, aids, 0, 0);
+            }
+            default -> {
+                int count = in.readCount();
+                List<Article> articles = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    articles.add(readArticle(in));
+                }
+                return new SyncEvent(operation, index, timestamp, articles, null, 0, 0);
+            }
+        }
+    }
+
+    private static void writeArticle(Output out, Article article) {
+        int fields = 0;
+        if (article.getAid() != null) {
+            fields |= FIELD_AID;
+        }
+        if (article.getTitle() != null) {
+            fields |= FIELD_TITLE;
+        }
+        if (article.getContent() != null) {
+            fields |= FIELD_CONTENT;
+        }
+        if (article.getCreateTime() != null) {
+            fields |= FIELD_CREATE_TIME;
+        }
+        if (article.getUpdateTime() != null) {
+            fields |= FIELD_UPDATE_TIME;
+        }
+        if (article.getCategory() != null) {
+            fields |= FIELD_CATEGORY;
+        }
+        if (article.getDeleted() != null) {
+            fields |= FIELD_DELETED;
+        }
+        out.writeByte(fields);
+
+        if ((fields & FIELD_AID) != 0) {
+            out.writeVarLong(article.getAid());
+        }
+        if ((fields & FIELD_TITLE) != 0) {
+            out.writeString(article.getTitle());
+        }
+        if ((fields & FIELD_CONTENT) != 0) {
+            out.writeString(article.getContent());
+        }
+        if ((fields & FIELD_CREATE_TIME) != 0) {
+            out.writeVarLong(article.getCreateTime());
+        }
+        if ((fields & FIELD_UPDATE_TIME) != 0) {
+            out.writeVarLong(article.getUpdateTime());
+        }
+        if ((fields & FIELD_CATEGORY) != 0) {
+            out.writeVarLong(article.getCategory());
+        }
+        if ((fields & FIELD_DELETED) != 0) {
+            out.writeVarLong(article.getDeleted());
+        }
+    }
+
+    private static Article readArticle(Input in) {
+        int fields = in.readByte();
+        Article article = new Article();
+        if ((fields & FIELD_AID) != 0) {
+            article.setAid(in.readVarLong());
+        }
+        if ((fields & FIELD_TITLE) != 0) {
+            article.setTitle(in.readString());
+        }
+        if ((fields & FIELD_CONTENT) != 0) {
+            article.setContent(in.readString());
+        }
+        if ((fields & FIELD_CREATE_TIME) != 0) {
+            article.setCreateTime(in.readVarLong());
+        }
+        if ((fields & FIELD_UPDATE_TIME) != 0) {
+            article.setUpdateTime(in.readVarLong());
+        }
+        if ((fields & FIELD_CATEGORY) != 0) {
+            article.setCategory((int) in.readVarLong());
+        }
+        if ((fields & FIELD_DELETED) != 0) {
+            article.setDeleted((int) in.readVarLong());
+        }
+        return article;
+    }
+
+    /**
+     * 可增长的字节输出缓冲区
+     */
+    private static final class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int initialCapacity) {
+            this.buffer = new byte[initialCapacity];
+        }
+
+        void reset() {
+            position = 0;
+        }
+
+        int capacity() {
+            return buffer.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + extra));
+            }
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeFixedLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarInt(int value) {
+            writeUnsignedVarLong(value & 0xFFFFFFFFL);
+        }
+
+        /**
+         * ZigZag变长编码，绝对值小的数（含负数）占用字节少
+         */
+        void writeVarLong(long value) {
+            writeUnsignedVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeUnsignedVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    /**
+     * 字节数组读取器
+     */
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private void require(int bytes) {
+            if (position + bytes > buffer.length) {
+                throw new IllegalArgumentException("SyncEvent数据不完整");
+            }
+        }
+
+        byte readByte() {
+            require(1);
+            return buffer[position++];
+        }
+
+        long readFixedLong() {
+            require(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        int readVarInt() {
+            long value = readUnsignedVarLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("SyncEvent数量字段越界: " + value);
+            }
+            return (int) value;
+        }
+
+        /**
+         * 读取元素数量：每个元素至少占1字节，数量超过剩余字节数说明数据损坏，在分配数组前拒绝
+         */
+        int readCount() {
+            int count = readVarInt();
+            if (count > buffer.length - position) {
+                throw new IllegalArgumentException("SyncEvent数量字段与数据长度不符: " + count);
+            }
+            return count;
+        }
+
+        long readVarLong() {
+            long raw = readUnsignedVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        private long readUnsignedVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("SyncEvent变长整数格式错误");
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.length - position) {
+                throw new IllegalArgumentException("SyncEvent数据不完整");
+            }
+            String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+    }
+}
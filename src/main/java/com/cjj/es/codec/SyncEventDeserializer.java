@@ -0,0 +1,24 @@
+package com.cjj.es.codec;
+
+import com.cjj.es.entity.SyncEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka SyncEvent反序列化器
+ * 直接解码为强类型的SyncEvent，格式错误时抛出SerializationException
+ */
+public class SyncEventDeserializer implements Deserializer<SyncEvent> {
+
+    @Override
+    public SyncEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return SyncEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("SyncEvent反序列化失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.cjj.es.codec;
+
+import com.cjj.es.entity.SyncEvent;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka SyncEvent序列化器
+ * 使用SyncEventCodec的二进制格式，替代带类型头的JSON序列化
+ */
+public class SyncEventSerializer implements Serializer<SyncEvent> {
+
+    @Override
+    public byte[] serialize(String topic, SyncEvent data) {
+        return data == null ? null : SyncEventCodec.encode(data);
+    }
+}
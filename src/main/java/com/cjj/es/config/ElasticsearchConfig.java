@@ -9,13 +9,33 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.elasticsearch.client.NodeSelector;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Elasticsearch客户端配置
+ * 支持逗号分隔的多节点地址（请求在节点间轮询，可选开启节点嗅探），
+ * 使用可配置大小的连接池代替RestClient默认的30总连接/每节点10连接，并行Bulk时不再排队等待连接；
+ * 请求体gzip压缩，连接池对外暴露以便查看租用和等待情况
+ */
 @Configuration
-public class ElasticsearchConfig {    @Value("${spring.elasticsearch.uris}")
+public class ElasticsearchConfig {
+
+    @Value("${spring.elasticsearch.uris}")
     private String elasticsearchUrl;
 
     @Value("${spring.elasticsearch.username:}")
@@ -24,27 +44,71 @@ public class ElasticsearchConfig {    @Value("${spring.elasticsearch.uris}")
     @Value("${spring.elasticsearch.password:}")
     private String password;
 
-    @Bean
-    public ElasticsearchClient elasticsearchClient() {
-        // 解析 URL
-        String host = "localhost";
-        int port = 9200;
-        String scheme = "http";
-        
-        if (elasticsearchUrl != null && !elasticsearchUrl.isEmpty()) {
-            String url = elasticsearchUrl.replace("http://", "").replace("https://", "");
-            String[] parts = url.split(":");
-            if (parts.length >= 1) {
-                host = parts[0];
-            }
-            if (parts.length >= 2) {
-                port = Integer.parseInt(parts[1]);
-            }
-            if (elasticsearchUrl.startsWith("https://")) {
-                scheme = "https";
-            }
+    // 连接池总连接数
+    @Value("${es.client.max-conn-total:100}")
+    private int maxConnTotal;
+
+    // 每个节点的最大连接数
+    @Value("${es.client.max-conn-per-route:50}")
+    private int maxConnPerRoute;
+
+    // IO线程数，0表示使用CPU核数
+    @Value("${es.client.io-threads:0}")
+    private int ioThreads;
+
+    // 建立连接超时
+    @Value("${es.client.connect-timeout-ms:1000}")
+    private int connectTimeoutMillis;
+
+    // 读取响应超时
+    @Value("${es.client.socket-timeout-ms:30000}")
+    private int socketTimeoutMillis;
+
+    // 从连接池获取连接的等待超时
+    @Value("${es.client.connection-request-timeout-ms:5000}")
+    private int connectionRequestTimeoutMillis;
+
+    // 是否gzip压缩请求体（同时接受gzip响应）
+    @Value("${es.client.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    // 是否开启节点嗅探
+    @Value("${es.client.sniff.enabled:false}")
+    private boolean sniffEnabled;
+
+    // 嗅探间隔
+    @Value("${es.client.sniff.interval-ms:300000}")
+    private int sniffIntervalMillis;
+
+    // 节点失败后的嗅探延迟
+    @Value("${es.client.sniff.after-failure-delay-ms:60000}")
+    private int sniffAfterFailureDelayMillis;
+
+    // 嗅探失败监听器，RestClient请求某节点失败时立即触发一次嗅探
+    private final SniffOnFailureListener sniffOnFailureListener = new SniffOnFailureListener();
+
+    /**
+     * ES连接池
+     * 单独声明为Bean，便于查询连接池统计
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PoolingNHttpClientConnectionManager esConnectionManager() throws IOReactorException {
+        IOReactorConfig.Builder reactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout(connectTimeoutMillis)
+                .setSoTimeout(socketTimeoutMillis);
+        if (ioThreads > 0) {
+            reactorConfig.setIoThreadCount(ioThreads);
         }
 
+        PoolingNHttpClientConnectionManager connectionManager =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig.build()));
+        connectionManager.setMaxTotal(maxConnTotal);
+        connectionManager.setDefaultMaxPerRoute(maxConnPerRoute);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public RestClient restClient(PoolingNHttpClientConnectionManager esConnectionManager) {
         // 创建认证提供者
         CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
 //        if (username != null && !username.equals("your_es_username") &&
@@ -53,16 +117,66 @@ public class ElasticsearchConfig {    @Value("${spring.elasticsearch.uris}")
 //                    new UsernamePasswordCredentials(username, password));
 //        }
 
-        // 创建 RestClient
-        RestClient restClient = RestClient.builder(new HttpHost(host, port, scheme))
-                .setHttpClientConfigCallback(httpClientBuilder -> 
-                        httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider))
+        RestClientBuilder builder = RestClient.builder(parseHosts(elasticsearchUrl))
+                .setCompressionEnabled(compressionEnabled)
+                .setRequestConfigCallback(requestConfig -> requestConfig
+                        .setConnectTimeout(connectTimeoutMillis)
+                        .setSocketTimeout(socketTimeoutMillis)
+                        .setConnectionRequestTimeout(connectionRequestTimeoutMillis))
+                .setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder
+                        .setConnectionManager(esConnectionManager)
+                        .setDefaultCredentialsProvider(credentialsProvider));
+
+        if (sniffEnabled) {
+            // 嗅探得到的节点中不向专用master节点发送请求
+            builder.setNodeSelector(NodeSelector.SKIP_DEDICATED_MASTERS)
+                    .setFailureListener(sniffOnFailureListener);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 节点嗅探器，定期从集群获取节点列表并更新RestClient
+     * 未开启嗅探时不创建，RestClient在配置的节点间轮询
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "es.client.sniff.enabled", havingValue = "true")
+    public Sniffer esSniffer(RestClient restClient) {
+        Sniffer sniffer = Sniffer.builder(restClient)
+                .setSniffIntervalMillis(sniffIntervalMillis)
+                .setSniffAfterFailureDelayMillis(sniffAfterFailureDelayMillis)
                 .build();
+        sniffOnFailureListener.setSniffer(sniffer);
+        return sniffer;
+    }
 
-        // 创建传输层和客户端
-        ElasticsearchTransport transport = new RestClientTransport(
-                restClient, new JacksonJsonpMapper());
+    @Bean
+    public ElasticsearchTransport elasticsearchTransport(RestClient restClient) {
+        return new RestClientTransport(restClient, new JacksonJsonpMapper());
+    }
+
+    @Bean
+    public ElasticsearchClient elasticsearchClient(ElasticsearchTransport elasticsearchTransport) {
+        return new ElasticsearchClient(elasticsearchTransport);
+    }
 
-        return new ElasticsearchClient(transport);
+    /**
+     * 解析节点地址，支持逗号分隔的多个地址，如 http://es1:9200,http://es2:9200
+     */
+    static HttpHost[] parseHosts(String uris) {
+        List<HttpHost> hosts = new ArrayList<>();
+        if (uris != null) {
+            for (String uri : uris.split(",")) {
+                String trimmed = uri.trim();
+                if (!trimmed.isEmpty()) {
+                    HttpHost host = HttpHost.create(trimmed);
+                    hosts.add(host.getPort() > 0 ? host : new HttpHost(host.getHostName(), 9200, host.getSchemeName()));
+                }
+            }
+        }
+        if (hosts.isEmpty()) {
+            hosts.add(new HttpHost("localhost", 9200, "http"));
+        }
+        return hosts.toArray(new HttpHost[0]);
     }
-}
\ No newline at end of file
+}
@@ -1,49 +1,148 @@
 package com.cjj.es.config;
 
+import com.cjj.es.codec.SyncEventDeserializer;
+import com.cjj.es.codec.SyncEventSerializer;
+import com.cjj.es.entity.SyncEvent;
+import com.cjj.es.service.SyncExecutors;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Kafka配置类
- * 配置Producer和Consumer的相关Bean
+ * 配置Producer和Consumer的相关Bean，客户端指标（发送速率、消费延迟records-lag-max等）注册到Micrometer；
+ * 同步主题按配置的分区数创建（已存在且分区数较少时扩容），消费者并发数默认等于分区数
  */
 @Configuration
 public class KafkaConfig {
 
+    // 同步主题
+    public static final String SYNC_TOPIC = "es_sync_topic";
+
+    // 死信主题，保存写入ES永久失败的aid，可重放
+    public static final String DEAD_LETTER_TOPIC = "es_sync_dlq";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SyncExecutors syncExecutors;
+
+    // Kafka集群地址
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    // 同步主题分区数，决定消费并行度上限
+    @Value("${es.kafka.topic.partitions:12}")
+    private int topicPartitions;
+
+    // 同步主题副本数
+    @Value("${es.kafka.topic.replicas:1}")
+    private short topicReplicas;
+
+    // 创建主题的超时，Kafka不可用时只记录错误，不阻止应用启动
+    @Value("${es.kafka.admin.timeout-seconds:5}")
+    private int adminTimeoutSeconds;
+
+    // 本实例的消费者并发数，0表示等于分区数；多实例部署时设为 分区数/实例数
+    @Value("${es.kafka.consumer.concurrency:0}")
+    private int consumerConcurrency;
+
+    // 生产者压缩算法
+    @Value("${es.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    // 单次拉取的最大消息数
+    @Value("${es.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    /**
+     * Kafka管理客户端，启动时创建同步主题
+     */
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        int timeoutMillis = adminTimeoutSeconds * 1000;
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configs.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, timeoutMillis);
+        configs.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, timeoutMillis);
+        KafkaAdmin admin = new KafkaAdmin(configs);
+        admin.setFatalIfBrokerNotAvailable(false);
+        admin.setOperationTimeout(adminTimeoutSeconds);
+        return admin;
+    }
+
+    /**
+     * 同步主题
+     * SyncEventPublisher按aid块指定分区并以块号为消息键，同一篇文章的消息总在同一分区内按序消费；
+     * 其他生产端同样需要按aid（或aid所在的块）选择分区
+     */
+    @Bean
+    public NewTopic syncTopic() {
+        return TopicBuilder.name(SYNC_TOPIC)
+                .partitions(topicPartitions)
+                .replicas(topicReplicas)
+                .build();
+    }
+
+    /**
+     * 死信主题
+     * 分区数与同步主题一致，消息键为aid
+     */
+    @Bean
+    public NewTopic deadLetterTopic() {
+        return TopicBuilder.name(DEAD_LETTER_TOPIC)
+                .partitions(topicPartitions)
+                .replicas(topicReplicas)
+                .build();
+    }
+
     /**
      * Kafka Producer配置
      */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
+    public ProducerFactory<String, SyncEvent> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // 消息体使用SyncEvent二进制编码
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, SyncEventSerializer.class);
         
         // 生产者性能优化配置
         configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
         configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
+        // 按批次压缩消息（lz4/zstd/snappy/gzip/none）
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
         
-        return new DefaultKafkaProducerFactory<>(configProps);
+        DefaultKafkaProducerFactory<String, SyncEvent> factory = new DefaultKafkaProducerFactory<>(configProps);
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     /**
      * KafkaTemplate Bean
      */
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
+    public KafkaTemplate<String, SyncEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
@@ -51,36 +150,54 @@ public class KafkaConfig {
      * Kafka Consumer配置
      */
     @Bean
-    public ConsumerFactory<String, Object> consumerFactory() {
+    public ConsumerFactory<String, SyncEvent> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "es-sync-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // 反序列化失败的消息以null值交给监听器跳过，不会阻塞分区
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, SyncEventDeserializer.class);
         
         // Consumer配置优化
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
-        props.put(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, 1000);
+        // 关闭自动提交，ES确认写入后由监听器手动提交位移
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // 单次拉取的最大消息数，决定合并为一个批量写入会话的消息规模
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         
-        // 配置JsonDeserializer信任所有包
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        
-        return new DefaultKafkaConsumerFactory<>(props);
+        DefaultKafkaConsumerFactory<String, SyncEvent> factory = new DefaultKafkaConsumerFactory<>(props);
+        // 注册消费者客户端指标，kafka.consumer.fetch.manager.records.lag.max即消费延迟
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     /**
      * Kafka监听器容器工厂
      */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
+    public ConcurrentKafkaListenerContainerFactory<String, SyncEvent> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, SyncEvent> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         
-        // 设置并发消费者数量
-        factory.setConcurrency(3);
-        
+        // 并发消费者数量，每个消费者分到至少一个分区，超过分区数的消费者空闲
+        factory.setConcurrency(consumerConcurrency > 0 ? consumerConcurrency : topicPartitions);
+
+        // 批量监听：一次拉取的消息整体交给监听器处理
+        factory.setBatchListener(true);
+        // 手动提交：监听器在ES确认写入后调用acknowledge
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        if (syncExecutors.isVirtual()) {
+            // 监听器阻塞在数据库回查和等待ES确认上，每个消费者运行在虚拟线程中
+            factory.getContainerProperties().setListenerTaskExecutor(syncExecutors.newTaskExecutor("es-kafka-listener-"));
+        }
+
+        // 写入失败时按指数退避重新投递整批消息，不设重试上限，ES恢复前不会跳过消息
+        ExponentialBackOff backOff = new ExponentialBackOff(1000L, 2.0);
+        backOff.setMaxInterval(30000L);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+
         return factory;
     }
 }
\ No newline at end of file
@@ -1,58 +1,88 @@
 package com.cjj.es.consumer;
 
+import com.cjj.es.config.KafkaConfig;
 import com.cjj.es.entity.Article;
+import com.cjj.es.entity.SyncEvent;
 import com.cjj.es.service.ESService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 /**
  * Kafka消息消费者
  * 负责处理ES同步相关的Kafka消息
- * 实现Dubbo->Kafka->ES数据流转的Kafka处理环节
+ * 消费SyncEventPublisher发往es_sync_topic的消息（HTTP接口 /sync/kafka/ids、/init/es/kafka 及死信重放），回查数据库后批量写入ES
  * 遵循单一职责原则：专注于消息消费和ES写入
  */
 @Component
 public class ESKafkaConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(ESKafkaConsumer.class);
+
     @Autowired
     private ESService esService;
 
     /**
-     * 监听ES同步主题消息
-     * 接收到消息后调用ES服务进行批量写入
-     * @param message Kafka消息内容
+     * 批量监听ES同步主题消息
+     * 一次拉取的全部消息合并为一个批量写入会话，ES确认写入后才手动提交位移；
+     * 写入失败时抛出异常不提交，由容器的错误处理器退避后重新投递，保证至少一次
+     * @param records 一次拉取的Kafka消息
+     * @param acknowledgment 手动提交位移
      */
-    @KafkaListener(topics = "es_sync_topic", groupId = "es-sync-group")
-    public void handleESSyncMessage(Map<String, Object> message) {
-        try {
-            System.out.println("收到Kafka消息，开始处理ES同步...");
-              // 解析消息内容
-            String operation = (String) message.get("operation");
-            String index = (String) message.get("index");
-            @SuppressWarnings("unchecked")
-            List<Article> articles = (List<Article>) message.get("data");
-            Long timestamp = (Long) message.get("timestamp");
-            
-            System.out.println("消息详情 - 操作: " + operation + ", 索引: " + index + 
-                             ", 数据量: " + (articles != null ? articles.size() : 0) + 
-                             ", 时间戳: " + timestamp);
-            
-            // 执行批量写入ES操作
-            if ("bulk_index".equals(operation) && articles != null) {
-                int successCount = esService.processBulkIndexFromKafka(articles);
-                System.out.println("Kafka消息处理完成，成功写入ES文档数量: " + successCount);
-            } else {
-                System.err.println("不支持的操作类型或数据为空: " + operation);
+    @KafkaListener(topics = KafkaConfig.SYNC_TOPIC, groupId = "es-sync-group")
+    public void handleESSyncMessages(List<ConsumerRecord<String, SyncEvent>> records, Acknowledgment acknowledgment)
+            throws Exception {
+        log.debug("收到Kafka消息，开始处理ES同步，消息数: {}", records.size());
+
+        List<Article> articles = new ArrayList<>();
+        // 同一批次内重复的aid只写入一次
+        Set<Long> aids = new LinkedHashSet<>();
+        List<long[]> ranges = new ArrayList<>();
+
+        for (ConsumerRecord<String, SyncEvent> record : records) {
+            if (record.value() == null) {
+                // 反序列化失败的消息无法通过重试恢复，记录后跳过，避免阻塞整个分区
+                log.error("解析Kafka消息失败，已跳过 - 分区: {}, 位移: {}", record.partition(), record.offset());
+                continue;
             }
-            
+            collect(record.value(), articles, aids, ranges);
+        }
+
+        try {
+            int successCount = esService.processSyncBatchFromKafka(articles, new ArrayList<>(aids), ranges);
+            // ES已确认写入，提交本批次位移
+            acknowledgment.acknowledge();
+            log.info("Kafka消息处理完成，消息数: {}，成功写入ES文档数量: {}", records.size(), successCount);
         } catch (Exception e) {
-            System.err.println("处理Kafka消息时发生错误: " + e.getMessage());
-            e.printStackTrace();
-            // 在实际应用中，这里应该实现重试逻辑或错误处理机制
+            log.error("处理Kafka消息时发生错误，本批次位移不提交: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 按操作类型将同步事件归集到对应列表
+     */
+    private void collect(SyncEvent event, List<Article> articles, Set<Long> aids, List<long[]> ranges) {
+        switch (event.getOperation()) {
+            // aid区间消息：回查数据库后写入
+            case BULK_INDEX_RANGE -> ranges.add(new long[]{event.getStartAid(), event.getEndAid()});
+            // aid列表消息：回查数据库后写入
+            case BULK_INDEX_IDS -> {
+                for (long aid : event.getAids()) {
+                    aids.add(aid);
+                }
+            }
+            // 完整数据消息：直接写入
+            case BULK_INDEX -> articles.addAll(event.getArticles());
         }
     }
-}
\ No newline at end of file
+}
@@ -1,71 +1,244 @@
 package com.cjj.es.controller;
 
-import com.cjj.es.service.ESService;
+import com.cjj.es.service.DeadLetterReplayService;
+import com.cjj.es.service.FullSyncJob;
+import com.cjj.es.service.FullSyncJobService;
 import com.cjj.es.service.ElasticsearchTestService;
+import com.cjj.es.service.IncrementalSyncService;
+import com.cjj.es.service.SyncEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/doc")
 public class ESController {
 
+    private static final Logger log = LoggerFactory.getLogger(ESController.class);
+
     @Autowired
-    private ESService esService;
-    
+    private FullSyncJobService fullSyncJobService;
+
     @Autowired
     private ElasticsearchTestService elasticsearchTestService;
 
+    @Autowired
+    private IncrementalSyncService incrementalSyncService;
+
+    @Autowired
+    private SyncEventPublisher syncEventPublisher;
+
+    @Autowired
+    private DeadLetterReplayService deadLetterReplayService;
+
     /**
      * 全量数据同步接口 - saveDoc
      * 功能：将数据库数据全量用Bulk API写入ES
-     * 数据流转路径：Dubbo->Kafka->ES
+     * 数据流转路径：数据库分区游标读取 -> Bulk写入ES（进程内直接写入，不经过Kafka；经Kafka分发见 GET /init/es/kafka）
      * 接口映射：GET /init/es
+     * 同步在后台任务中执行，接口立即返回任务信息，通过任务ID查询进度；
+     * 已有全量同步在执行时不会重复启动，返回正在执行的任务；
+     * 上次同步中断时默认从检查点继续，只同步剩余数据；
+     * 别名已指向版本索引时默认原地同步，内容未变的文档不再写入，映射变更后传rebuild=true重建到新版本索引
      *
+     * @param resume 是否从检查点继续，false时丢弃检查点从头同步
+     * @param rebuild 是否重建到新版本索引并切换别名
      * @return 操作结果信息
      */
     @GetMapping("/init/es")
-    public Map<String, Object> saveDoc() {
+    public Map<String, Object> saveDoc(@RequestParam(defaultValue = "true") boolean resume,
+                                       @RequestParam(defaultValue = "false") boolean rebuild) {
         Map<String, Object> result = new HashMap<>();
 
         try {
-            System.out.println("=== 开始执行saveDoc全量同步 ===");
-
             // 检查ES连接状态
             if (!elasticsearchTestService.isConnected()) {
                 result.put("success", false);
                 result.put("message", "ES连接失败，无法执行同步操作");
-                System.err.println("ES连接检查失败");
+                log.error("ES连接检查失败");
                 return result;
             }
 
-            // 调用ESService执行全量同步
-            // 内部实现：数据库查询 -> Kafka发送 -> ES批量写入
-
-            Map<String, Object> syncResult = esService.fullSyncToES();
-
-            // 记录操作日志
-            boolean success = (Boolean) syncResult.get("success");
-            if (success) {
-                Integer totalCount = (Integer) syncResult.get("totalCount");
-                Integer successCount = (Integer) syncResult.get("successCount");
-                System.out.println("saveDoc执行成功 - 总数据: " + totalCount + ", 成功写入: " + successCount);
-            } else {
-                System.err.println("saveDoc执行失败: " + syncResult.get("message"));
+            // 内部实现：后台任务按aid分区读取数据库 -> ES批量写入，检查点以ES确认为准
+            FullSyncJob job = fullSyncJobService.trySubmit(resume, rebuild);
+            if (job == null) {
+                FullSyncJob running = fullSyncJobService.getRunningJob();
+                result.put("success", false);
+                result.put("message", "全量同步正在执行中");
+                if (running != null) {
+                    result.put("job", running.toMap());
+                }
+                return result;
             }
 
-            return syncResult;
+            log.info("saveDoc全量同步任务已启动，任务ID: {}", job.getId());
+            result.put("success", true);
+            result.put("message", "全量同步任务已启动");
+            result.put("job", job.toMap());
+            return result;
 
         } catch (Exception e) {
             result.put("success", false);
             result.put("message", "saveDoc执行异常: " + e.getMessage());
-            System.err.println("saveDoc执行过程中发生异常: " + e.getMessage());
-            e.printStackTrace();
+            log.error("saveDoc执行过程中发生异常: {}", e.getMessage(), e);
             return result;
         }
     }
+
+    /**
+     * 最近的全量同步任务
+     * 接口映射：GET /init/es/jobs
+     *
+     * @return 任务列表，按提交时间倒序
+     */
+    @GetMapping("/init/es/jobs")
+    public Map<String, Object> listFullSyncJobs() {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (FullSyncJob job : fullSyncJobService.listJobs()) {
+            jobs.add(job.toMap());
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("jobs", jobs);
+        return result;
+    }
+
+    /**
+     * 查询全量同步任务进度
+     * 接口映射：GET /init/es/jobs/{jobId}
+     * 返回状态、已读取/已写入/失败数、速率及预计剩余时间
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @GetMapping("/init/es/jobs/{jobId}")
+    public Map<String, Object> getFullSyncJob(@PathVariable String jobId) {
+        Map<String, Object> result = new HashMap<>();
+        FullSyncJob job = fullSyncJobService.getJob(jobId);
+        if (job == null) {
+            result.put("success", false);
+            result.put("message", "任务不存在: " + jobId);
+            return result;
+        }
+        result.put("success", true);
+        result.put("job", job.toMap());
+        return result;
+    }
+
+    /**
+     * 取消全量同步任务
+     * 接口映射：POST /init/es/jobs/{jobId}/cancel
+     * 任务在当前批次写入完成后停止，未完成的版本索引被删除，别名仍指向旧索引
+     *
+     * @param jobId 任务ID
+     * @return 操作结果信息
+     */
+    @PostMapping("/init/es/jobs/{jobId}/cancel")
+    public Map<String, Object> cancelFullSyncJob(@PathVariable String jobId) {
+        Map<String, Object> result = new HashMap<>();
+        boolean cancelled = fullSyncJobService.cancel(jobId);
+        result.put("success", cancelled);
+        result.put("message", cancelled ? "已请求取消，任务将在当前批次完成后停止" : "任务不存在或已结束");
+        FullSyncJob job = fullSyncJobService.getJob(jobId);
+        if (job != null) {
+            result.put("job", job.toMap());
+        }
+        return result;
+    }
+
+    /**
+     * 增量同步接口
+     * 功能：按update_time水位将上次同步后变更的文章写入ES，软删除的文章从ES删除
+     * 接口映射：GET /sync/incremental
+     *
+     * @return 操作结果信息
+     */
+    @GetMapping("/sync/incremental")
+    public Map<String, Object> incrementalSync() {
+        return incrementalSyncService.incrementalSyncToES();
+    }
+
+    /**
+     * 经Kafka分发全量同步
+     * 功能：全表按aid块切分为多条区间消息发往es_sync_topic，由各消费者实例按分区并行回查数据库写入别名
+     * 接口映射：GET /init/es/kafka
+     * 消息得到broker确认后返回，不等待写入ES；不重建版本索引，重建请使用 GET /init/es?rebuild=true
+     *
+     * @return 操作结果信息
+     */
+    @GetMapping("/init/es/kafka")
+    public Map<String, Object> publishFullSync() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            int messageCount = syncEventPublisher.publishAll();
+            result.put("success", true);
+            result.put("message", messageCount > 0 ? "已分发到Kafka" : "数据库中没有文章数据");
+            result.put("messageCount", messageCount);
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "分发全量同步失败: " + e.getMessage());
+            log.error("分发全量同步到Kafka失败: {}", e.getMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * 经Kafka异步同步指定文章
+     * 功能：aid列表按aid块切分为多条ID消息发往es_sync_topic（同一篇文章总在同一分区），由消费端批量回查数据库后写入ES
+     * 接口映射：POST /sync/kafka/ids
+     * 消息得到broker确认后返回，不等待写入ES
+     *
+     * @param aids 文章ID列表
+     * @return 操作结果信息
+     */
+    @PostMapping("/sync/kafka/ids")
+    public Map<String, Object> publishIds(@RequestBody List<Long> aids) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            int messageCount = syncEventPublisher.publishIds(aids.stream().mapToLong(Long::longValue).toArray());
+            result.put("success", true);
+            result.put("message", "已发送到Kafka");
+            result.put("messageCount", messageCount);
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "发送到Kafka失败: " + e.getMessage());
+            log.error("发送aid列表到Kafka失败: {}", e.getMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * 重放死信
+     * 功能：将死信主题es_sync_dlq中截至当前的死信aid重新发布到es_sync_topic，按数据库当前数据重新写入ES
+     * 接口映射：POST /sync/dead-letters/replay
+     * 应在导致永久失败的问题（映射冲突、文档过大等）修复后调用，仍失败的文档会再次进入死信主题
+     *
+     * @return 操作结果信息
+     */
+    @PostMapping("/sync/dead-letters/replay")
+    public Map<String, Object> replayDeadLetters() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.putAll(deadLetterReplayService.replay());
+            result.put("success", true);
+            result.put("message", "死信已重新发布");
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "死信重放失败: " + e.getMessage());
+            log.error("死信重放失败: {}", e.getMessage(), e);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,31 @@
+package com.cjj.es.controller;
+
+import com.cjj.es.entity.ArticleSearchRequest;
+import com.cjj.es.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    /**
+     * 文章检索接口
+     * 功能：关键词全文检索，支持分类、创建时间范围过滤、排序和游标翻页
+     * 接口映射：GET /api/search?q=关键词&category=1&startTime=..&endTime=..&sort=relevance|createTime|updateTime&order=desc&size=10&cursor=..
+     *
+     * @param params 检索参数
+     * @return 命中列表、总数和下一页游标nextCursor
+     */
+    @GetMapping
+    public Map<String, Object> search(ArticleSearchRequest params) {
+        return searchService.search(params);
+    }
+}
@@ -1,15 +1,14 @@
 package com.cjj.es.controller;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import com.cjj.es.entity.Article;
 import com.cjj.es.mapper.ArticleMapper;
+import com.cjj.es.service.ElasticsearchTestService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,6 +25,9 @@ public class SimpleTestController {
     @Autowired(required = false)
     private ArticleMapper articleMapper;
 
+    @Autowired
+    private ElasticsearchTestService elasticsearchTestService;
+
     /**
      * 测试 ES 连接
      */
@@ -46,6 +48,17 @@ public class SimpleTestController {
         }
     }
 
+    /**
+     * 查看 ES 连接池统计
+     */
+    @GetMapping("/es-pool")
+    public Map<String, Object> esConnectionPool() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.putAll(elasticsearchTestService.getConnectionPoolStats());
+        return result;
+    }
+
     /**
      * 测试数据库连接
      */
@@ -84,10 +97,9 @@ public class SimpleTestController {
             result.put("message", "saveDoc 接口可用，等待完整实现");
             result.put("timestamp", System.currentTimeMillis());
             
-            // 如果 docMapper 可用，尝试查询数据
+            // 如果 docMapper 可用，统计数据量（不加载全表数据）
             if (articleMapper != null) {
-                List<Article> articles = articleMapper.selectAllArticles();
-                result.put("database_articles", articles != null ? articles.size() : 0);
+                result.put("database_articles", articleMapper.countArticles());
             }
             
             return result;
@@ -37,6 +37,11 @@ public class Article {
      */
     private Integer category;
 
+    /**
+     * 软删除标记：1为已删除（对应is_deleted列）
+     */
+    private Integer deleted;
+
     // 构造函数
     public Article() {}
 
@@ -95,6 +100,14 @@ public class Article {
         this.category = category;
     }
 
+    public Integer getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Integer deleted) {
+        this.deleted = deleted;
+    }
+
     @Override
     public String toString() {
         return "Article{" +
@@ -104,6 +117,7 @@ public class Article {
                 ", createTime=" + createTime +
                 ", updateTime=" + updateTime +
                 ", category=" + category +
+                ", deleted=" + deleted +
                 '}';
     }
 }
@@ -0,0 +1,162 @@
+package com.cjj.es.entity;
+
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpSerializable;
+import com.cjj.es.util.HtmlTextCleaner;
+import jakarta.json.stream.JsonGenerator;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * ES文章文档
+ * 对应索引 article_index 中的一条文档，字段名常量是索引映射、写入和检索共用的唯一来源；
+ * 实现JsonpSerializable，写入Bulk请求时直接按字段写出JSON，不经过Map和反射序列化
+ */
+public record ArticleDocument(Long aid, String title, String content, Integer category,
+                              Long createTime, Long updateTime, String timestamp) implements JsonpSerializable {
+
+    public static final String AID = "aid";
+    public static final String TITLE = "title";
+    public static final String CONTENT = "content";
+    public static final String CATEGORY = "category";
+    public static final String CREATE_TIME = "createTime";
+    public static final String UPDATE_TIME = "updateTime";
+    public static final String TIMESTAMP = "timestamp";
+
+    /**
+     * timestamp字段（写入时间）的格式
+     */
+    public static final String TIMESTAMP_FORMAT = "yy/MM/dd HH:mm:ss";
+
+    // 64位FNV-1a参数
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern(TIMESTAMP_FORMAT);
+
+    // 同一秒内写入的文档共用格式化后的时间字符串
+    private static volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(-1, "");
+
+    /**
+     * 由数据库文章构建ES文档
+     * content清理HTML标签后写入，timestamp为当前时间
+     * @param article 数据库文章实体
+     * @return ES文档
+     */
+    public static ArticleDocument from(Article article) {
+        return new ArticleDocument(
+                article.getAid(),
+                article.getTitle(),
+                HtmlTextCleaner.clean(article.getContent()),
+                article.getCategory(),
+                article.getCreateTime(),
+                article.getUpdateTime(),
+                currentTimestamp()
+        );
+    }
+
+    /**
+     * 当前时间的timestamp字段值，按秒缓存
+     */
+    static String currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedTimestamp cached = cachedTimestamp;
+        if (cached.second != second) {
+            cached = new CachedTimestamp(second, LocalDateTime.now(ZoneId.systemDefault()).format(TIMESTAMP_FORMATTER));
+            cachedTimestamp = cached;
+        }
+        return cached.text;
+    }
+
+    /**
+     * 预估序列化后的字节数
+     * 字符串按UTF-8最坏情况（中文3字节）计算，保证切分后的请求体不超过上限
+     */
+    public long estimatedBytes() {
+        // Bulk操作行、字段名及JSON结构开销
+        long bytes = 256;
+        bytes += title == null ? 0 : title.length() * 3L;
+        bytes += content == null ? 0 : content.length() * 3L;
+        bytes += timestamp == null ? 0 : timestamp.length();
+        return bytes;
+    }
+
+    /**
+     * 文档内容指纹
+     * 对除timestamp（写入时间）外的全部字段计算64位哈希，内容不变时指纹不变；
+     * 返回值不为0，0保留表示没有指纹
+     */
+    public long fingerprint() {
+        long h = FNV_OFFSET;
+        h = hash(h, aid);
+        h = hash(h, title);
+        h = hash(h, content);
+        h = hash(h, category == null ? null : category.longValue());
+        h = hash(h, createTime);
+        h = hash(h, updateTime);
+        // 末尾再做一次雪崩混合，使相近输入的指纹充分分散
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private static long hash(long h, String value) {
+        if (value == null) {
+            return (h ^ 0xFF) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // 写入长度作为字段分隔，避免相邻字段内容互相挪动后哈希相同
+        return (h ^ value.length()) * FNV_PRIME;
+    }
+
+    private static long hash(long h, Long value) {
+        if (value == null) {
+            return (h ^ 0xFF) * FNV_PRIME;
+        }
+        long v = value;
+        for (int shift = 0; shift < 64; shift += 8) {
+            h = (h ^ ((v >>> shift) & 0xFF)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * 按字段写出JSON，值为null的字段不写出
+     */
+    @Override
+    public void serialize(JsonGenerator generator, JsonpMapper mapper) {
+        generator.writeStartObject();
+        if (aid != null) {
+            generator.write(AID, aid);
+        }
+        if (title != null) {
+            generator.write(TITLE, title);
+        }
+        if (content != null) {
+            generator.write(CONTENT, content);
+        }
+        if (category != null) {
+            generator.write(CATEGORY, category);
+        }
+        if (createTime != null) {
+            generator.write(CREATE_TIME, createTime);
+        }
+        if (updateTime != null) {
+            generator.write(UPDATE_TIME, updateTime);
+        }
+        if (timestamp != null) {
+            generator.write(TIMESTAMP, timestamp);
+        }
+        generator.writeEnd();
+    }
+
+    private record CachedTimestamp(long second, String text) {
+    }
+}
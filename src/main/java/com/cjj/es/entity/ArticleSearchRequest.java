@@ -0,0 +1,126 @@
+package com.cjj.es.entity;
+
+/**
+ * 文章检索请求参数
+ * 对应 GET /api/search 的查询参数
+ */
+public class ArticleSearchRequest {
+
+    /**
+     * 检索关键词，为空时只按过滤条件返回
+     */
+    private String q;
+
+    /**
+     * 文档类型过滤：1为对内，2为对外
+     */
+    private Integer category;
+
+    /**
+     * 创建时间下限（毫秒时间戳，包含）
+     */
+    private Long startTime;
+
+    /**
+     * 创建时间上限（毫秒时间戳，包含）
+     */
+    private Long endTime;
+
+    /**
+     * 排序方式：relevance（相关度）、createTime、updateTime
+     */
+    private String sort;
+
+    /**
+     * 排序方向：asc 或 desc，相关度排序固定为desc
+     */
+    private String order;
+
+    /**
+     * 每页数量
+     */
+    private Integer size;
+
+    /**
+     * 翻页游标，取自上一页返回的nextCursor
+     */
+    private String cursor;
+
+    public String getQ() {
+        return q;
+    }
+
+    public void setQ(String q) {
+        this.q = q;
+    }
+
+    public Integer getCategory() {
+        return category;
+    }
+
+    public void setCategory(Integer category) {
+        this.category = category;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Long startTime) {
+        this.startTime = startTime;
+    }
+
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Long endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getOrder() {
+        return order;
+    }
+
+    public void setOrder(String order) {
+        this.order = order;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleSearchRequest{" +
+                "q='" + q + '\'' +
+                ", category=" + category +
+                ", startTime=" + startTime +
+                ", endTime=" + endTime +
+                ", sort='" + sort + '\'' +
+                ", order='" + order + '\'' +
+                ", size=" + size +
+                ", cursor='" + cursor + '\'' +
+                '}';
+    }
+}
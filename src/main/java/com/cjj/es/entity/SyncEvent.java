@@ -0,0 +1,132 @@
+package com.cjj.es.entity;
+
+import java.util.List;
+
+/**
+ * ES同步事件
+ * es_sync_topic上传输的消息类型，由SyncEventCodec进行二进制编解码
+ * 按操作类型携带完整文章数据、aid列表或aid区间之一
+ */
+public class SyncEvent {
+
+    /**
+     * 同步操作类型，code为二进制编码中的操作标识
+     */
+    public enum Operation {
+        BULK_INDEX(1),
+        BULK_INDEX_IDS(2),
+        BULK_INDEX_RANGE(3);
+
+        private final int code;
+
+        Operation(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public static Operation fromCode(int code) {
+            for (Operation operation : values()) {
+                if (operation.code == code) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("未知的同步操作类型: " + code);
+        }
+    }
+
+    private final Operation operation;
+
+    /**
+     * 目标索引名称
+     */
+    private final String index;
+
+    /**
+     * 事件产生时间（毫秒）
+     */
+    private final long timestamp;
+
+    /**
+     * BULK_INDEX：完整文章数据
+     */
+    private final List<Article> articles;
+
+    /**
+     * BULK_INDEX_IDS：文章ID列表
+     */
+    private final long[] aids;
+
+    /**
+     * BULK_INDEX_RANGE：aid闭区间
+     */
+    private final long startAid;
+    private final long endAid;
+
+    public SyncEvent(Operation operation, String index, long timestamp, List<Article> articles,
+                     long[] aids, long startAid, long endAid) {
+        this.operation = operation;
+        this.index = index;
+        this.timestamp = timestamp;
+        this.articles = articles;
+        this.aids = aids;
+        this.startAid = startAid;
+        this.endAid = endAid;
+    }
+
+    public static SyncEvent ofArticles(String index, List<Article> articles) {
+        return new SyncEvent(Operation.BULK_INDEX, index, System.currentTimeMillis(), articles, null, 0, 0);
+    }
+
+    public static SyncEvent ofIds(String index, long[] aids) {
+        return new SyncEvent(Operation.BULK_INDEX_IDS, index, System.currentTimeMillis(), null, aids, 0, 0);
+    }
+
+    public static SyncEvent ofRange(String index, long startAid, long endAid) {
+        return new SyncEvent(Operation.BULK_INDEX_RANGE, index, System.currentTimeMillis(), null, null,
+                startAid, endAid);
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public List<Article> getArticles() {
+        return articles;
+    }
+
+    public long[] getAids() {
+        return aids;
+    }
+
+    public long getStartAid() {
+        return startAid;
+    }
+
+    public long getEndAid() {
+        return endAid;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncEvent{" +
+                "operation=" + operation +
+                ", index='" + index + '\'' +
+                ", timestamp=" + timestamp +
+                ", articles=" + (articles != null ? articles.size() : 0) +
+                ", aids=" + (aids != null ? aids.length : 0) +
+                ", startAid=" + startAid +
+                ", endAid=" + endAid +
+                '}';
+    }
+}
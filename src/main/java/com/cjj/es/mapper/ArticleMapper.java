@@ -2,6 +2,7 @@ package com.cjj.es.mapper;
 
 import com.cjj.es.entity.Article;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import java.util.List;
@@ -22,14 +23,6 @@ public interface ArticleMapper {
     @Select("SELECT aid, title, content, create_time, update_time, category FROM t_article")
     List<Article> selectAllArticles();
 
-    /**
-     * 根据ID查询单篇文章
-     * @param aid 文章ID
-     * @return 文章实体
-     */
-    @Select("SELECT aid, title, content, create_time, update_time, category FROM t_article WHERE aid = #{aid}")
-    Article selectByAid(Long aid);
-
     /**
      * 分页查询文章
      * 用于大数据量时的分批处理
@@ -40,6 +33,81 @@ public interface ArticleMapper {
     @Select("SELECT aid, title, content, create_time, update_time, category FROM t_article LIMIT #{offset}, #{limit}")
     List<Article> selectByPage(int offset, int limit);
 
+    /**
+     * 在aid闭区间内按游标分批查询，包含软删除的记录
+     * 用于Kafka范围消息的数据回查和原地全量同步的分区读取，软删除的文章由调用方转换为删除操作
+     * @param lastAid 上一批次最后一条记录的aid（首批传区间起点-1）
+     * @param endAid 区间终点（包含）
+     * @param limit 每批数量
+     * @return 按aid升序排列的文章列表
+     */
+    @Select("SELECT aid, title, content, create_time, update_time, category, is_deleted AS deleted FROM t_article " +
+            "WHERE aid > #{lastAid} AND aid <= #{endAid} ORDER BY aid LIMIT #{limit}")
+    List<Article> selectRangeAfterAid(long lastAid, long endAid, int limit);
+
+    /**
+     * 在aid闭区间内按游标分批查询未删除的文章
+     * 用于全量同步的分区读取：软删除的文章不写入重建的索引；
+     * WHERE aid > lastAid 走主键索引范围扫描，查询耗时不随翻页深度增长，避免 LIMIT offset 的深分页问题
+     * @param lastAid 上一批次最后一条记录的aid（首批传区间起点-1）
+     * @param endAid 区间终点（包含）
+     * @param limit 每批数量
+     * @return 按aid升序排列的文章列表
+     */
+    @Select("SELECT aid, title, content, create_time, update_time, category FROM t_article " +
+            "WHERE aid > #{lastAid} AND aid <= #{endAid} AND is_deleted = 0 ORDER BY aid LIMIT #{limit}")
+    List<Article> selectLiveRangeAfterAid(long lastAid, long endAid, int limit);
+
+    /**
+     * 根据ID列表批量查询文章，包含软删除的记录
+     * 用于Kafka ID消息、单文档合并同步和Dubbo批量同步的数据回查，调用方需控制列表长度
+     * @param aids 文章ID列表
+     * @return 文章列表（不存在的ID不返回）
+     */
+    @Select({"<script>",
+            "SELECT aid, title, content, create_time, update_time, category, is_deleted AS deleted FROM t_article WHERE aid IN ",
+            "<foreach collection='aids' item='aid' open='(' separator=',' close=')'>#{aid}</foreach>",
+            "</script>"})
+    List<Article> selectByAids(@Param("aids") List<Long> aids);
+
+    /**
+     * 增量同步查询：按(update_time, aid)水位读取之后变更的文章，包含软删除的记录
+     * 依赖联合索引：ALTER TABLE t_article ADD INDEX idx_update_time_aid (update_time, aid)
+     * 上界upperTime用于排除仍可能有未提交事务写入的最近时间段
+     * @param updateTime 水位更新时间
+     * @param aid 水位文章ID（同一更新时间内的游标）
+     * @param upperTime 本次读取的更新时间上界（包含）
+     * @param limit 每批数量
+     * @return 按(update_time, aid)升序排列的文章列表
+     */
+    @Select("SELECT aid, title, content, create_time, update_time, category, is_deleted AS deleted FROM t_article " +
+            "WHERE (update_time > #{updateTime} OR (update_time = #{updateTime} AND aid > #{aid})) " +
+            "AND update_time <= #{upperTime} ORDER BY update_time, aid LIMIT #{limit}")
+    List<Article> selectChangedSince(long updateTime, long aid, long upperTime, int limit);
+
+    /**
+     * 最小文章ID，表为空时返回null
+     * 用于全量同步划分aid分区
+     */
+    @Select("SELECT MIN(aid) FROM t_article")
+    Long selectMinAid();
+
+    /**
+     * 最大文章ID，表为空时返回null
+     */
+    @Select("SELECT MAX(aid) FROM t_article")
+    Long selectMaxAid();
+
+    /**
+     * 统计aid闭区间内的文章数
+     * 走主键范围扫描，用于估算各分区的数据量
+     * @param startAid 区间起点（包含）
+     * @param endAid 区间终点（包含）
+     * @return 文章数量
+     */
+    @Select("SELECT COUNT(*) FROM t_article WHERE aid >= #{startAid} AND aid <= #{endAid}")
+    long countInRange(long startAid, long endAid);
+
     /**
      * 统计文章总数
      * @return 文章总数
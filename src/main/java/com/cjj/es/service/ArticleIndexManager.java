@@ -0,0 +1,230 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 文章索引版本管理
+ * 全量同步写入新的版本索引article_index_v{n}，写入期间关闭刷新和副本以提升Bulk吞吐；
+ * 写入完成后恢复设置、段合并，再原子切换article_index别名，读请求始终看到完整的索引；
+ * 切换后按保留数量清理旧版本
+ */
+@Service
+public class ArticleIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleIndexManager.class);
+
+    // 对外提供读写的别名
+    public static final String ALIAS = "article_index";
+
+    // 版本索引名前缀
+    public static final String VERSION_PREFIX = ALIAS + "_v";
+
+    @Autowired
+    private ElasticsearchClient elasticsearchClient;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private DocumentExistenceCache existenceCache;
+
+    // 写入完成后恢复的刷新间隔
+    @Value("${es.index.refresh-interval:1s}")
+    private String refreshInterval;
+
+    // 写入完成后恢复的副本数
+    @Value("${es.index.replicas:1}")
+    private String replicas;
+
+    // 主分片数
+    @Value("${es.index.shards:1}")
+    private String shards;
+
+    // 切换前段合并的目标段数，0表示不合并
+    @Value("${es.index.force-merge-segments:1}")
+    private int forceMergeSegments;
+
+    // 切换后保留的旧版本数量（不含当前版本）
+    @Value("${es.index.retained-versions:1}")
+    private int retainedVersions;
+
+    /**
+     * 创建下一个版本索引
+     * 以批量导入优化的设置创建：关闭刷新、不分配副本
+     * @return 新版本索引名称
+     */
+    public String createNextVersion() throws IOException {
+        int next = listVersions().stream().mapToInt(ArticleIndexManager::versionOf).max().orElse(0) + 1;
+        String index = VERSION_PREFIX + next;
+
+        elasticsearchClient.indices().create(c -> c
+                .index(index)
+                .settings(s -> s
+                        .numberOfShards(shards)
+                        .numberOfReplicas("0")
+                        .refreshInterval(t -> t.time("-1"))
+                )
+        );
+        log.info("已创建版本索引: {}（refresh_interval=-1, replicas=0）", index);
+        return index;
+    }
+
+    /**
+     * 版本索引写入完成后上线
+     * 恢复刷新间隔和副本数、段合并、原子切换别名、清理旧版本
+     * @param index 写入完成的版本索引
+     */
+    public void promote(String index) throws IOException {
+        // 恢复正常的刷新和副本设置
+        elasticsearchClient.indices().putSettings(p -> p
+                .index(index)
+                .settings(s -> s
+                        .numberOfReplicas(replicas)
+                        .refreshInterval(t -> t.time(refreshInterval))
+                )
+        );
+        elasticsearchClient.indices().refresh(r -> r.index(index));
+
+        // 只读索引合并为少量段，降低查询开销
+        if (forceMergeSegments > 0) {
+            long start = System.currentTimeMillis();
+            elasticsearchClient.indices().forcemerge(f -> f
+                    .index(index)
+                    .maxNumSegments((long) forceMergeSegments)
+            );
+            log.info("版本索引段合并完成: {}，耗时: {}ms", index, System.currentTimeMillis() - start);
+        }
+
+        swapAlias(index);
+        cleanupOldVersions(index);
+    }
+
+    /**
+     * 原子切换别名到指定索引
+     * 如果存在历史遗留的同名实体索引article_index，在同一个请求中删除，避免别名冲突
+     * @param index 目标索引
+     */
+    public void swapAlias(String index) throws IOException {
+        List<Action> actions = new ArrayList<>();
+
+        boolean aliasExists = elasticsearchClient.indices().existsAlias(e -> e.name(ALIAS)).value();
+        if (aliasExists) {
+            for (String oldIndex : currentAliasTargets()) {
+                if (!oldIndex.equals(index)) {
+                    actions.add(Action.of(a -> a.remove(r -> r.index(oldIndex).alias(ALIAS))));
+                }
+            }
+        } else if (elasticsearchClient.indices().exists(e -> e.index(ALIAS)).value()) {
+            // 旧版本直接写入的实体索引
+            actions.add(Action.of(a -> a.removeIndex(r -> r.index(ALIAS))));
+        }
+        actions.add(Action.of(a -> a.add(ad -> ad.index(index).alias(ALIAS).isWriteIndex(true))));
+
+        elasticsearchClient.indices().updateAliases(u -> u.actions(actions));
+        searchResultCache.onAliasSwapped();
+        existenceCache.clear();
+        log.info("别名 {} 已切换到: {}", ALIAS, index);
+    }
+
+    /**
+     * 查询别名当前指向的索引
+     * @return 索引名称集合，别名不存在时为空
+     */
+    public Set<String> currentAliasTargets() throws IOException {
+        if (!elasticsearchClient.indices().existsAlias(e -> e.name(ALIAS)).value()) {
+            return Collections.emptySet();
+        }
+        return new TreeSet<>(elasticsearchClient.indices().getAlias(g -> g.name(ALIAS)).result().keySet());
+    }
+
+    /**
+     * 判断别名是否已指向版本索引
+     * 别名不存在或指向旧版本直接写入的实体索引时返回false，此时全量同步需要重建到版本索引
+     */
+    public boolean isAliasOnVersion() throws IOException {
+        Set<String> targets = currentAliasTargets();
+        return !targets.isEmpty() && targets.stream().allMatch(index -> versionOf(index) > 0);
+    }
+
+    /**
+     * 判断版本索引能否继续写入（全量同步从检查点续传）
+     * 索引仍存在且尚未被别名指向时可以继续写入
+     * @param index 版本索引
+     */
+    public boolean isResumableVersion(String index) throws IOException {
+        return versionOf(index) > 0
+                && !currentAliasTargets().contains(index)
+                && elasticsearchClient.indices().exists(e -> e.index(index)).value();
+    }
+
+    /**
+     * 删除版本索引（写入失败时放弃该版本）
+     * @param index 版本索引
+     */
+    public void deleteVersion(String index) throws IOException {
+        if (!index.startsWith(VERSION_PREFIX)) {
+            throw new IllegalArgumentException("只能删除版本索引: " + index);
+        }
+        elasticsearchClient.indices().delete(d -> d.index(index).ignoreUnavailable(true));
+        log.info("已删除版本索引: {}", index);
+    }
+
+    /**
+     * 清理旧版本索引
+     * 只清理版本号小于当前版本的索引，比当前版本新的可能正在写入，不做处理
+     */
+    private void cleanupOldVersions(String current) throws IOException {
+        int currentVersion = versionOf(current);
+        List<String> older = new ArrayList<>();
+        for (String index : listVersions()) {
+            if (versionOf(index) < currentVersion) {
+                older.add(index);
+            }
+        }
+        older.sort((a, b) -> Integer.compare(versionOf(b), versionOf(a)));
+        for (int i = retainedVersions; i < older.size(); i++) {
+            deleteVersion(older.get(i));
+        }
+    }
+
+    /**
+     * 列出所有版本索引
+     */
+    private List<String> listVersions() throws IOException {
+        List<String> versions = new ArrayList<>();
+        for (String index : elasticsearchClient.indices()
+                .get(g -> g.index(VERSION_PREFIX + "*").allowNoIndices(true)).result().keySet()) {
+            if (versionOf(index) > 0) {
+                versions.add(index);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * 解析版本号，非版本索引返回0
+     */
+    static int versionOf(String index) {
+        if (!index.startsWith(VERSION_PREFIX)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(index.substring(VERSION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.mapping.DynamicMapping;
+import co.elastic.clients.elasticsearch._types.mapping.IndexOptions;
+import co.elastic.clients.elasticsearch._types.mapping.Property;
+import co.elastic.clients.elasticsearch._types.mapping.TypeMapping;
+import co.elastic.clients.elasticsearch.indices.get_index_template.IndexTemplateItem;
+import co.elastic.clients.elasticsearch.indices.get_mapping.IndexMappingRecord;
+import com.cjj.es.entity.ArticleDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文章索引模板与映射管理
+ * 声明article_index的显式映射：标题和正文使用IK分词（索引ik_max_word、检索ik_smart），
+ * aid/category/时间字段使用数值和日期类型，禁止动态映射生成多余的keyword子字段；
+ * 启动时校验并升级索引模板，对已有索引补充缺失字段，类型不兼容的字段提示通过全量同步重建
+ */
+@Service
+public class ArticleIndexTemplateManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleIndexTemplateManager.class);
+
+    // 索引模板名称
+    public static final String TEMPLATE_NAME = "article_index_template";
+
+    // 映射版本，修改映射时递增，启动时据此判断是否需要更新模板
+    public static final long MAPPING_VERSION = 1L;
+
+    // IK分词器：索引时细粒度切分，检索时智能切分
+    public static final String INDEX_ANALYZER = "ik_max_word";
+    public static final String SEARCH_ANALYZER = "ik_smart";
+
+    @Autowired
+    private ElasticsearchClient elasticsearchClient;
+
+    // 是否在启动时校验和升级模板与映射
+    @Value("${es.index.manage-on-startup:true}")
+    private boolean manageOnStartup;
+
+    /**
+     * 文章索引映射，字段名取自ArticleDocument
+     * title保留norms参与长度归一化；content关闭norms，相关性主要由标题决定，
+     * 并记录offsets以加速高亮；timestamp只用于展示和排序，不建倒排索引
+     */
+    public static TypeMapping articleMapping() {
+        return TypeMapping.of(m -> m
+                .dynamic(DynamicMapping.Strict)
+                .properties(articleProperties())
+        );
+    }
+
+    private static Map<String, Property> articleProperties() {
+        Map<String, Property> properties = new LinkedHashMap<>();
+        properties.put(ArticleDocument.AID, Property.of(p -> p.long_(l -> l)));
+        properties.put(ArticleDocument.TITLE, Property.of(p -> p.text(t -> t
+                .analyzer(INDEX_ANALYZER)
+                .searchAnalyzer(SEARCH_ANALYZER))));
+        properties.put(ArticleDocument.CONTENT, Property.of(p -> p.text(t -> t
+                .analyzer(INDEX_ANALYZER)
+                .searchAnalyzer(SEARCH_ANALYZER)
+                .norms(false)
+                .indexOptions(IndexOptions.Offsets))));
+        properties.put(ArticleDocument.CATEGORY, Property.of(p -> p.integer(i -> i)));
+        properties.put(ArticleDocument.CREATE_TIME, Property.of(p -> p.date(d -> d.format("epoch_millis"))));
+        properties.put(ArticleDocument.UPDATE_TIME, Property.of(p -> p.date(d -> d.format("epoch_millis"))));
+        properties.put(ArticleDocument.TIMESTAMP, Property.of(p -> p.date(d -> d.format(ArticleDocument.TIMESTAMP_FORMAT).index(false))));
+        return properties;
+    }
+
+    /**
+     * 应用启动完成后校验模板和映射
+     * ES不可用时只记录日志，不影响应用启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!manageOnStartup) {
+            return;
+        }
+        try {
+            if (!elasticsearchClient.ping().value()) {
+                log.warn("ES不可用，跳过索引模板校验");
+                return;
+            }
+            ensureTemplate();
+            upgradeLiveMapping();
+        } catch (IOException e) {
+            log.warn("ES不可用，跳过索引模板校验: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("索引模板校验失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 确保索引模板为当前版本
+     * 模板匹配版本索引和旧的实体索引名，新建的索引自动应用IK映射
+     */
+    public void ensureTemplate() throws IOException {
+        if (elasticsearchClient.indices().existsIndexTemplate(e -> e.name(TEMPLATE_NAME)).value()) {
+            List<IndexTemplateItem> templates = elasticsearchClient.indices()
+                    .getIndexTemplate(g -> g.name(TEMPLATE_NAME)).indexTemplates();
+            if (!templates.isEmpty() && Long.valueOf(MAPPING_VERSION).equals(templates.get(0).indexTemplate().version())) {
+                return;
+            }
+        }
+
+        elasticsearchClient.indices().putIndexTemplate(p -> p
+                .name(TEMPLATE_NAME)
+                .indexPatterns(ArticleIndexManager.ALIAS, ArticleIndexManager.VERSION_PREFIX + "*")
+                .priority(100L)
+                .version(MAPPING_VERSION)
+                .template(t -> t.mappings(articleMapping()))
+        );
+        log.info("索引模板已更新: {}，映射版本: {}", TEMPLATE_NAME, MAPPING_VERSION);
+    }
+
+    /**
+     * 校验线上索引映射
+     * 缺失的字段通过put mapping补充；类型或分词器不一致的字段无法原地修改，需全量同步重建索引
+     */
+    public void upgradeLiveMapping() throws IOException {
+        if (!elasticsearchClient.indices().exists(e -> e.index(ArticleIndexManager.ALIAS)).value()) {
+            return;
+        }
+
+        Map<String, Property> expected = articleProperties();
+        Map<String, IndexMappingRecord> mappings = elasticsearchClient.indices()
+                .getMapping(g -> g.index(ArticleIndexManager.ALIAS)).result();
+
+        for (Map.Entry<String, IndexMappingRecord> entry : mappings.entrySet()) {
+            String index = entry.getKey();
+            Map<String, Property> actual = entry.getValue().mappings().properties();
+            Map<String, Property> missing = new HashMap<>();
+
+            for (Map.Entry<String, Property> field : expected.entrySet()) {
+                Property current = actual.get(field.getKey());
+                if (current == null) {
+                    missing.put(field.getKey(), field.getValue());
+                } else if (!isCompatible(field.getValue(), current)) {
+                    log.warn("索引 {} 的字段 {} 映射为 {}，与期望的映射不一致，请执行全量同步重建索引（rebuild=true）",
+                            index, field.getKey(), current._kind());
+                }
+            }
+
+            if (!missing.isEmpty()) {
+                elasticsearchClient.indices().putMapping(p -> p.index(index).properties(missing));
+                log.info("索引 {} 已补充映射字段: {}", index, missing.keySet());
+            }
+        }
+    }
+
+    /**
+     * 判断已有字段映射与期望映射是否兼容：类型一致，文本字段的分词器一致
+     */
+    private static boolean isCompatible(Property expected, Property actual) {
+        if (expected._kind() != actual._kind()) {
+            return false;
+        }
+        if (expected.isText()) {
+            return INDEX_ANALYZER.equals(actual.text().analyzer())
+                    && SEARCH_ANALYZER.equals(actual.text().searchAnalyzer());
+        }
+        return true;
+    }
+}
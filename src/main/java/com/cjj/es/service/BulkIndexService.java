@@ -0,0 +1,432 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.transport.TransportException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.elasticsearch.client.ResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ES批量写入引擎
+ * 按文档数和字节数切分Bulk请求，通过异步客户端保持多个请求并发执行；
+ * 在途请求数由全局信号量限制，达到上限时调用方阻塞（背压），
+ * ES返回429/503等过载状态时按指数退避重试，避免压垮集群；
+ * 单条文档失败时只将可重试的条目退避后并入下一个Bulk请求，永久失败的条目转入死信
+ */
+@Service
+public class BulkIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIndexService.class);
+
+    @Autowired
+    private ElasticsearchClient elasticsearchClient;
+
+    @Autowired
+    private DeadLetterSink deadLetterSink;
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    @Autowired
+    private DocumentFingerprintStore fingerprintStore;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private DocumentExistenceCache existenceCache;
+
+    // 单个Bulk请求最大文档数
+    @Value("${es.bulk.max-docs:1000}")
+    private int maxDocs;
+
+    // 单个Bulk请求最大字节数（需小于ES的http.max_content_length）
+    @Value("${es.bulk.max-bytes:5242880}")
+    private long maxBytes;
+
+    // 同时在途的Bulk请求数
+    @Value("${es.bulk.concurrency:4}")
+    private int concurrency;
+
+    // 过载时整个请求的最大重试次数
+    @Value("${es.bulk.max-retries:5}")
+    private int maxRetries;
+
+    // 单条文档可重试失败（429/503/版本冲突）的最大重试次数
+    @Value("${es.bulk.max-item-retries:3}")
+    private int maxItemRetries;
+
+    // 首次重试退避时间，之后每次翻倍
+    @Value("${es.bulk.initial-backoff-ms:200}")
+    private long initialBackoffMillis;
+
+    private ElasticsearchAsyncClient asyncClient;
+
+    private Semaphore inFlightPermits;
+
+    private ScheduledExecutorService retryScheduler;
+
+    // 全局统计：在途请求数、在途字节数、累计写入文档数
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final AtomicLong totalIndexedDocs = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        // 与同步客户端共用同一个传输层（连接池）
+        asyncClient = new ElasticsearchAsyncClient(elasticsearchClient._transport());
+        inFlightPermits = new Semaphore(concurrency);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "es-bulk-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncMetrics.gauge("es.bulk.in_flight.requests", "在途Bulk请求数", inFlightRequests);
+        syncMetrics.gauge("es.bulk.in_flight.bytes", "在途Bulk请求预估字节数", inFlightBytes);
+        syncMetrics.functionCounter("es.bulk.indexed.docs", "累计写入ES成功的文档数", totalIndexedDocs);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        retryScheduler.shutdownNow();
+    }
+
+    /**
+     * 开启一个批量写入会话
+     * 调用方持续add条目，会话内部按阈值自动切分并发送，finish时等待所有请求完成
+     * @return 批量写入会话
+     */
+    public BulkSession openSession() {
+        return new BulkSession();
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public long getTotalIndexedDocs() {
+        return totalIndexedDocs.get();
+    }
+
+    /**
+     * 解析异常对应的HTTP状态码，无法识别时返回-1
+     */
+    static int statusOf(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof ElasticsearchException esException) {
+            return esException.status();
+        }
+        if (cause instanceof TransportException transportException) {
+            return transportException.statusCode();
+        }
+        if (cause instanceof ResponseException responseException) {
+            return responseException.getResponse().getStatusLine().getStatusCode();
+        }
+        return -1;
+    }
+
+    /**
+     * 判断整个请求失败是否可以重试：过载/网关类状态码或网络IO异常
+     */
+    static boolean isRetryableRequestFailure(Throwable ex) {
+        int status = statusOf(ex);
+        if (status == 429 || status == 502 || status == 503 || status == 504) {
+            return true;
+        }
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return status == -1 && cause instanceof IOException;
+    }
+
+    /**
+     * 判断单条文档失败是否可以重试：队列拒绝、分片不可用、版本冲突
+     */
+    static boolean isRetryableItemStatus(int status) {
+        return status == 429 || status == 503 || status == 409;
+    }
+
+    /**
+     * 批量写入会话
+     * 非线程安全：同一会话应由单个线程add，响应回调在客户端IO线程中执行；
+     * 等待在途请求使用ReentrantLock而非synchronized，虚拟线程阻塞等待时不占用载体线程
+     */
+    public class BulkSession {
+
+        private List<BulkItem> buffer = new ArrayList<>();
+        private long bufferBytes;
+
+        private final long startTime = System.currentTimeMillis();
+        private final ReentrantLock lock = new ReentrantLock();
+        // 在途请求完成或重试条目退避到期时通知
+        private final Condition progressed = lock.newCondition();
+        private int pendingRequests;
+
+        // 退避到期、等待并入下一个请求的重试条目；pendingRetries包含仍在退避中的条目
+        private final ConcurrentLinkedQueue<BulkItem> retryQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingRetries = new AtomicInteger();
+
+        private final AtomicInteger successCount = new AtomicInteger();
+        private final AtomicInteger failedCount = new AtomicInteger();
+        private final AtomicInteger requestCount = new AtomicInteger();
+        private final AtomicInteger retriedCount = new AtomicInteger();
+        private final AtomicInteger requestFailures = new AtomicInteger();
+        private final AtomicLong totalBytes = new AtomicLong();
+        private volatile Throwable lastError;
+        private final Set<String> failedIds = ConcurrentHashMap.newKeySet();
+
+        private BulkSession() {
+        }
+
+        /**
+         * 添加一个写入条目，达到文档数或字节数阈值时自动发送
+         * 在途请求已满时阻塞，直到有请求完成
+         */
+        public void add(BulkItem item) throws InterruptedException {
+            drainRetries();
+            buffer(item);
+        }
+
+        private void buffer(BulkItem item) throws InterruptedException {
+            buffer.add(item);
+            bufferBytes += item.getEstimatedBytes();
+            if (buffer.size() >= maxDocs || bufferBytes >= maxBytes) {
+                flush();
+            }
+        }
+
+        /**
+         * 将退避到期的重试条目并入当前缓冲区
+         */
+        private void drainRetries() throws InterruptedException {
+            BulkItem retry;
+            while ((retry = retryQueue.poll()) != null) {
+                pendingRetries.decrementAndGet();
+                buffer(retry);
+            }
+        }
+
+        /**
+         * 发送当前缓冲区中的条目
+         */
+        public void flush() throws InterruptedException {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            List<BulkItem> items = buffer;
+            long bytes = bufferBytes;
+            buffer = new ArrayList<>();
+            bufferBytes = 0;
+
+            // 获取在途许可，满时阻塞调用方形成背压
+            inFlightPermits.acquire();
+            lock.lock();
+            try {
+                pendingRequests++;
+            } finally {
+                lock.unlock();
+            }
+            inFlightRequests.incrementAndGet();
+            inFlightBytes.addAndGet(bytes);
+            requestCount.incrementAndGet();
+            totalBytes.addAndGet(bytes);
+            syncMetrics.recordBulkRequestSize(items.size(), bytes);
+            send(items, bytes, 0, System.nanoTime());
+        }
+
+        /**
+         * @param firstSendNanos 首次发送时间，请求耗时指标包含过载重试的等待
+         */
+        private void send(List<BulkItem> items, long bytes, int attempt, long firstSendNanos) {
+            List<BulkOperation> operations = new ArrayList<>(items.size());
+            for (BulkItem item : items) {
+                operations.add(item.getOperation());
+            }
+            long sendTime = System.currentTimeMillis();
+
+            asyncClient.bulk(BulkRequest.of(b -> b.operations(operations)))
+                    .whenComplete((response, ex) -> {
+                        if (ex != null) {
+                            if (attempt < maxRetries && isRetryableRequestFailure(ex)) {
+                                // 集群过载：保持许可不释放，退避后重发，持续限制在途请求数
+                                long backoff = initialBackoffMillis << attempt;
+                                log.warn("Bulk请求被拒绝(状态码: {})，{}ms后第 {} 次重试，文档数: {}",
+                                        statusOf(ex), backoff, attempt + 1, items.size());
+                                syncMetrics.recordBulkRetry();
+                                retryScheduler.schedule(() -> send(items, bytes, attempt + 1, firstSendNanos),
+                                        backoff, TimeUnit.MILLISECONDS);
+                                return;
+                            }
+                            log.error("Bulk请求失败，文档数: {}，错误: {}", items.size(), ex.getMessage());
+                            syncMetrics.recordBulkRequest("failure", System.nanoTime() - firstSendNanos);
+                            failedCount.addAndGet(items.size());
+                            for (BulkItem item : items) {
+                                failedIds.add(item.getId());
+                            }
+                            requestFailures.incrementAndGet();
+                            lastError = ex;
+                        } else {
+                            syncMetrics.recordBulkRequest("success", System.nanoTime() - firstSendNanos);
+                            handleResponse(items, response);
+                            log.debug("Bulk请求完成 - 文档数: {}，字节: {}，耗时: {}ms，在途请求: {}，在途字节: {}",
+                                    items.size(), bytes, System.currentTimeMillis() - sendTime,
+                                    inFlightRequests.get(), inFlightBytes.get());
+                        }
+                        complete(bytes);
+                    });
+        }
+
+        /**
+         * 逐条处理响应：成功计数、记录新鲜度、内容指纹和存在性、使检索缓存失效，可重试失败退避后重新入队，永久失败转入死信
+         * Bulk响应条目与请求条目顺序一一对应
+         */
+        private void handleResponse(List<BulkItem> items, BulkResponse response) {
+            int success = 0;
+            boolean aliasWritten = false;
+            long now = System.currentTimeMillis();
+            List<BulkResponseItem> responseItems = response.items();
+            for (int i = 0; i < responseItems.size(); i++) {
+                BulkResponseItem responseItem = responseItems.get(i);
+                BulkItem item = items.get(i);
+                if (responseItem.error() == null) {
+                    success++;
+                    syncMetrics.recordFreshness(item.getSourceUpdateTime(), now);
+                    fingerprintStore.onIndexed(item);
+                    existenceCache.onIndexed(item);
+                    aliasWritten |= ArticleIndexManager.ALIAS.equals(item.getIndex());
+                    continue;
+                }
+                int status = responseItem.status();
+                boolean retry = isRetryableItemStatus(status) && item.getAttempts() < maxItemRetries;
+                syncMetrics.recordItemFailure(status, responseItem.error().type(), retry);
+                if (retry) {
+                    retriedCount.incrementAndGet();
+                    scheduleRetry(item.nextAttempt());
+                } else {
+                    failedCount.incrementAndGet();
+                    failedIds.add(item.getId());
+                    deadLetterSink.accept(item, status, responseItem.error().reason());
+                }
+            }
+            successCount.addAndGet(success);
+            totalIndexedDocs.addAndGet(success);
+            // 写入尚未上线的版本索引不影响检索结果
+            if (aliasWritten) {
+                searchResultCache.onIndexWritten();
+            }
+        }
+
+        private void scheduleRetry(BulkItem item) {
+            pendingRetries.incrementAndGet();
+            long backoff = initialBackoffMillis << (item.getAttempts() - 1);
+            retryScheduler.schedule(() -> {
+                retryQueue.add(item);
+                lock.lock();
+                try {
+                    progressed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }, backoff, TimeUnit.MILLISECONDS);
+        }
+
+        private void complete(long bytes) {
+            inFlightBytes.addAndGet(-bytes);
+            inFlightRequests.decrementAndGet();
+            inFlightPermits.release();
+            lock.lock();
+            try {
+                pendingRequests--;
+                progressed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 当前已确认写入成功的文档数，会话进行中可随时读取
+         */
+        public int getSuccessCount() {
+            return successCount.get();
+        }
+
+        /**
+         * 当前永久失败的文档数
+         */
+        public int getFailedCount() {
+            return failedCount.get();
+        }
+
+        /**
+         * 整个请求失败（重试耗尽或网络异常）的次数
+         */
+        public int getRequestFailures() {
+            return requestFailures.get();
+        }
+
+        /**
+         * 发送缓冲区中的条目并等待目前为止加入的所有条目处理完成（含退避重试），会话可以继续使用
+         * 返回后此前add的条目均已得到ES确认、转入死信或计入整个请求失败，可据此保存检查点
+         */
+        public void awaitCompletion() throws InterruptedException {
+            while (true) {
+                drainRetries();
+                flush();
+                lock.lock();
+                try {
+                    // 等待在途请求完成，或有重试条目退避到期需要发送
+                    while ((pendingRequests > 0 || pendingRetries.get() > 0) && retryQueue.isEmpty()) {
+                        progressed.await();
+                    }
+                    if (pendingRequests == 0 && pendingRetries.get() == 0) {
+                        break;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * 发送剩余条目并等待本会话所有请求完成
+         * @return 本会话的写入统计
+         */
+        public BulkResult finish() throws InterruptedException {
+            awaitCompletion();
+            BulkResult result = new BulkResult(successCount.get(), failedCount.get(), retriedCount.get(),
+                    requestCount.get(), totalBytes.get(), System.currentTimeMillis() - startTime,
+                    requestFailures.get(), lastError, failedIds);
+            log.info("Bulk会话完成: {}", result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+
+/**
+ * 批量写入条目
+ * 封装一个Bulk操作及其预估请求体字节数，供BulkIndexService按文档数和字节数切分请求
+ */
+public class BulkItem {
+
+    /**
+     * 文档ID
+     */
+    private final String id;
+
+    /**
+     * Bulk操作（index/delete等）
+     */
+    private final BulkOperation operation;
+
+    /**
+     * 预估序列化后的字节数（宁大勿小，用于控制单个请求体大小）
+     */
+    private final long estimatedBytes;
+
+    /**
+     * 已重试次数
+     */
+    private final int attempts;
+
+    /**
+     * 数据库中的更新时间（毫秒），写入成功后用于统计端到端新鲜度，0表示不统计
+     */
+    private final long sourceUpdateTime;
+
+    /**
+     * 文档内容指纹，写入成功后记录到DocumentFingerprintStore，0表示不记录
+     */
+    private final long fingerprint;
+
+    public BulkItem(String id, BulkOperation operation, long estimatedBytes) {
+        this(id, operation, estimatedBytes, 0L, 0L);
+    }
+
+    public BulkItem(String id, BulkOperation operation, long estimatedBytes, long sourceUpdateTime, long fingerprint) {
+        this(id, operation, estimatedBytes, sourceUpdateTime, fingerprint, 0);
+    }
+
+    private BulkItem(String id, BulkOperation operation, long estimatedBytes, long sourceUpdateTime, long fingerprint,
+                     int attempts) {
+        this.id = id;
+        this.operation = operation;
+        this.estimatedBytes = estimatedBytes;
+        this.sourceUpdateTime = sourceUpdateTime;
+        this.fingerprint = fingerprint;
+        this.attempts = attempts;
+    }
+
+    /**
+     * 生成重试次数加一的副本，用于失败条目重新入队
+     */
+    public BulkItem nextAttempt() {
+        return new BulkItem(id, operation, estimatedBytes, sourceUpdateTime, fingerprint, attempts + 1);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public BulkOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * 操作的目标索引（或别名）
+     */
+    public String getIndex() {
+        return switch (operation._kind()) {
+            case Index -> operation.index().index();
+            case Create -> operation.create().index();
+            case Update -> operation.update().index();
+            case Delete -> operation.delete().index();
+        };
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getSourceUpdateTime() {
+        return sourceUpdateTime;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+}
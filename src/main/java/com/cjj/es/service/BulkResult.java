@@ -0,0 +1,110 @@
+package com.cjj.es.service;
+
+import java.util.Set;
+
+/**
+ * 批量写入结果统计
+ * 由BulkIndexService.BulkSession在finish时汇总返回
+ */
+public class BulkResult {
+
+    private final int successCount;
+
+    /**
+     * 永久失败（已转入死信）的文档数
+     */
+    private final int failedCount;
+
+    /**
+     * 单条失败后重新入队重试的次数
+     */
+    private final int retriedCount;
+
+    private final int requestCount;
+
+    private final long totalBytes;
+
+    private final long costMillis;
+
+    /**
+     * 整个请求失败（非单条文档失败）的次数，如网络异常、重试耗尽
+     */
+    private final int requestFailures;
+
+    private final Throwable lastError;
+
+    /**
+     * 写入失败的文档ID（转入死信的条目及整个请求失败的条目）
+     */
+    private final Set<String> failedIds;
+
+    public BulkResult(int successCount, int failedCount, int retriedCount, int requestCount, long totalBytes,
+                      long costMillis, int requestFailures, Throwable lastError, Set<String> failedIds) {
+        this.successCount = successCount;
+        this.failedCount = failedCount;
+        this.retriedCount = retriedCount;
+        this.requestCount = requestCount;
+        this.totalBytes = totalBytes;
+        this.costMillis = costMillis;
+        this.requestFailures = requestFailures;
+        this.lastError = lastError;
+        this.failedIds = failedIds;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public int getRetriedCount() {
+        return retriedCount;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getCostMillis() {
+        return costMillis;
+    }
+
+    public int getRequestFailures() {
+        return requestFailures;
+    }
+
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    public Set<String> getFailedIds() {
+        return failedIds;
+    }
+
+    /**
+     * 写入速率（文档数/秒）
+     */
+    public long getDocsPerSecond() {
+        return (successCount + failedCount) * 1000L / Math.max(1, costMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{" +
+                "successCount=" + successCount +
+                ", failedCount=" + failedCount +
+                ", retriedCount=" + retriedCount +
+                ", requestCount=" + requestCount +
+                ", totalBytes=" + totalBytes +
+                ", costMillis=" + costMillis +
+                ", docsPerSecond=" + getDocsPerSecond() +
+                ", requestFailures=" + requestFailures +
+                '}';
+    }
+}
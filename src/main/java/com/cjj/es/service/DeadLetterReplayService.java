@@ -0,0 +1,107 @@
+package com.cjj.es.service;
+
+import com.cjj.es.config.KafkaConfig;
+import com.cjj.es.entity.SyncEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 死信重放
+ * 读取es_sync_dlq中截至重放开始时的全部死信，把其中的aid重新发布到es_sync_topic，由消费端按数据库当前数据写入ES；
+ * 以独立的消费组记录重放进度，重新发布得到broker确认后才提交位移，重放失败时下次从同一位置继续。
+ * 只读取开始时已有的消息，重放期间再次失败写入的死信留给下一次重放，不会循环
+ */
+@Service
+public class DeadLetterReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplayService.class);
+
+    // 重放进度所在的消费组
+    private static final String REPLAY_GROUP = "es-dead-letter-replay";
+
+    @Autowired
+    private ConsumerFactory<String, SyncEvent> consumerFactory;
+
+    @Autowired
+    private SyncEventPublisher syncEventPublisher;
+
+    // 单次拉取的等待时间
+    @Value("${es.sync.dead-letter.replay.poll-ms:1000}")
+    private long pollMillis;
+
+    /**
+     * 重放死信
+     * @return 重放结果：读取的死信数、重新发布的文章数与消息数
+     * @throws IOException 重新发布失败时抛出，位移不提交
+     */
+    public synchronized Map<String, Object> replay() throws IOException {
+        try (Consumer<String, SyncEvent> consumer = consumerFactory.createConsumer(REPLAY_GROUP, null)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : consumer.partitionsFor(KafkaConfig.DEAD_LETTER_TOPIC)) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            consumer.assign(partitions);
+            // 重放开始时各分区的末尾位置
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            List<Long> aids = new ArrayList<>();
+            int records = 0;
+            while (!reachedEnd(consumer, endOffsets)) {
+                for (ConsumerRecord<String, SyncEvent> record : consumer.poll(Duration.ofMillis(pollMillis))) {
+                    if (record.offset() >= endOffsets.get(new TopicPartition(record.topic(), record.partition()))) {
+                        continue;
+                    }
+                    records++;
+                    if (record.value() == null || record.value().getAids() == null) {
+                        log.error("无法解析的死信，已跳过 - 分区: {}, 位移: {}", record.partition(), record.offset());
+                        continue;
+                    }
+                    for (long aid : record.value().getAids()) {
+                        aids.add(aid);
+                    }
+                }
+            }
+
+            int messageCount = aids.isEmpty() ? 0
+                    : syncEventPublisher.publishIds(aids.stream().mapToLong(Long::longValue).toArray());
+            Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+            endOffsets.forEach((partition, offset) -> commits.put(partition, new OffsetAndMetadata(offset)));
+            consumer.commitSync(commits);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("deadLetters", records);
+            result.put("replayedAids", aids.size());
+            result.put("messageCount", messageCount);
+            log.info("死信重放完成，死信数: {}，重新发布文章数: {}，消息数: {}", records, aids.size(), messageCount);
+            return result;
+        }
+    }
+
+    /**
+     * 判断各分区是否已读到重放开始时的末尾位置
+     */
+    private static boolean reachedEnd(Consumer<String, SyncEvent> consumer, Map<TopicPartition, Long> endOffsets) {
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            if (consumer.position(entry.getKey()) < entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.cjj.es.service;
+
+/**
+ * 死信处理接口
+ * 接收无法重试或重试耗尽的Bulk写入条目，由具体实现决定落地方式（日志、消息队列、数据库等）
+ */
+public interface DeadLetterSink {
+
+    /**
+     * 处理一条永久失败的写入条目
+     * @param item 失败的写入条目
+     * @param status ES返回的条目状态码
+     * @param reason 失败原因
+     */
+    void accept(BulkItem item, int status, String reason);
+}
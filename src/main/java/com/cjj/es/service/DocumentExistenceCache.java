@@ -0,0 +1,93 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import com.cjj.es.util.LongBooleanCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文档存在性近端缓存
+ * 以aid为键缓存文档在article_index别名中是否存在，供ESService.documentExists/documentsExist使用，同步时据此判断数据库中已不存在的文章是否需要从ES删除；
+ * 同步链路写入别名得到确认时直接更新（索引为存在，删除为不存在），别名切换时清空，
+ * 未命中的aid由ESService批量mget查询后填充。容量固定，冲突时覆盖旧条目
+ */
+@Component
+public class DocumentExistenceCache {
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    // 是否启用存在性缓存
+    @Value("${es.lookup.exists-cache.enabled:true}")
+    private boolean enabled;
+
+    // 缓存槽位数（向上取整为2的幂）
+    @Value("${es.lookup.exists-cache.capacity:131072}")
+    private int capacity;
+
+    private LongBooleanCache cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = new LongBooleanCache(capacity);
+        syncMetrics.functionCounter("es.lookup.exists.cache.hits", "存在性检查命中缓存的次数", hits);
+        syncMetrics.functionCounter("es.lookup.exists.cache.misses", "存在性检查未命中缓存、需查询ES的次数", misses);
+    }
+
+    /**
+     * 查询缓存
+     * @return LongBooleanCache.TRUE/FALSE，未缓存时返回LongBooleanCache.UNKNOWN
+     */
+    public int get(long aid) {
+        int value = enabled ? cache.get(aid) : LongBooleanCache.UNKNOWN;
+        (value == LongBooleanCache.UNKNOWN ? misses : hits).incrementAndGet();
+        return value;
+    }
+
+    /**
+     * 查询ES前读取槽位标记，查询结果通过fill写入
+     */
+    public long stamp(long aid) {
+        return cache.stamp(aid);
+    }
+
+    /**
+     * 以ES查询结果填充缓存，查询期间该aid有同步写入时保留写入的结果
+     */
+    public void fill(long aid, boolean exists, long stamp) {
+        if (enabled) {
+            cache.putIfUnchanged(aid, exists, stamp);
+        }
+    }
+
+    /**
+     * 条目写入成功后调用，只处理写入别名的条目（未上线的版本索引不影响别名中的存在性）
+     */
+    public void onIndexed(BulkItem item) {
+        if (!ArticleIndexManager.ALIAS.equals(item.getIndex())) {
+            return;
+        }
+        BulkOperation operation = item.getOperation();
+        record(Long.parseLong(item.getId()), !operation.isDelete());
+    }
+
+    public void record(long aid, boolean exists) {
+        if (enabled) {
+            cache.put(aid, exists);
+        }
+    }
+
+    /**
+     * 清空缓存，别名切换到新版本索引后调用
+     */
+    public void clear() {
+        cache.clear();
+    }
+}
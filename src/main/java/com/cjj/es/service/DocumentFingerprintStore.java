@@ -0,0 +1,113 @@
+package com.cjj.es.service;
+
+import com.cjj.es.util.LongLongHashMap;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文档内容指纹存储
+ * 以aid为键保存最近一次ES确认写入article_index别名的文档指纹（ArticleDocument.fingerprint），
+ * 同步时指纹未变的文档在构建Bulk请求前跳过，不再重复写入；
+ * 指纹只在写入成功后记录、删除成功后移除，写入失败的文档下次同步仍会发送。
+ * 全量重建写入未上线的版本索引时，指纹先暂存在该版本名下：别名切换到该版本时整体替换当前指纹，
+ * 放弃该版本时丢弃，别名仍指向的旧索引的指纹不受影响。
+ * 指纹保存在进程内存中，重启后为空，首次同步会全部发送
+ */
+@Component
+public class DocumentFingerprintStore {
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    // 是否跳过内容未变的文档
+    @Value("${es.sync.fingerprint.enabled:true}")
+    private boolean enabled;
+
+    // 初始容量（文章数量级），不足时自动扩容
+    @Value("${es.sync.fingerprint.initial-capacity:65536}")
+    private int initialCapacity;
+
+    // 别名当前指向的索引中的文档指纹
+    private LongLongHashMap fingerprints;
+
+    // 正在写入的版本索引及其暂存的指纹，没有全量重建时为空
+    private String stagedIndex;
+    private LongLongHashMap staged;
+
+    @PostConstruct
+    public void init() {
+        fingerprints = new LongLongHashMap(initialCapacity);
+        syncMetrics.gauge("es.sync.fingerprint.entries", "已记录内容指纹的文档数", this, DocumentFingerprintStore::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 判断文档内容与别名中最近一次写入的是否一致
+     */
+    public synchronized boolean isUnchanged(long aid, long fingerprint) {
+        return enabled && fingerprints.get(aid, 0L) == fingerprint;
+    }
+
+    /**
+     * 条目写入成功后调用：索引操作记录指纹，删除操作移除指纹；
+     * 写入别名的条目更新当前指纹，写入暂存版本索引的条目更新暂存指纹，其他索引忽略
+     */
+    public synchronized void onIndexed(BulkItem item) {
+        LongLongHashMap target;
+        if (ArticleIndexManager.ALIAS.equals(item.getIndex())) {
+            target = fingerprints;
+        } else if (item.getIndex().equals(stagedIndex)) {
+            target = staged;
+        } else {
+            return;
+        }
+        long aid = Long.parseLong(item.getId());
+        if (item.getOperation().isDelete()) {
+            target.remove(aid);
+        } else if (enabled && item.getFingerprint() != 0) {
+            target.put(aid, item.getFingerprint());
+        }
+    }
+
+    /**
+     * 开始为版本索引暂存指纹，开始写入版本索引前调用
+     * 续写同一个版本索引时保留已暂存的指纹，进程重启前写入的文档没有暂存指纹，上线后的首次同步会重新发送
+     * @param index 版本索引
+     */
+    public synchronized void stage(String index) {
+        if (!index.equals(stagedIndex)) {
+            stagedIndex = index;
+            staged = new LongLongHashMap(initialCapacity);
+        }
+    }
+
+    /**
+     * 别名切换到版本索引后调用，以该版本暂存的指纹替换当前指纹
+     * @param index 已上线的版本索引
+     */
+    public synchronized void publish(String index) {
+        fingerprints = index.equals(stagedIndex) ? staged : new LongLongHashMap(initialCapacity);
+        stagedIndex = null;
+        staged = null;
+    }
+
+    /**
+     * 放弃版本索引时调用，丢弃该版本暂存的指纹
+     * @param index 被放弃的版本索引
+     */
+    public synchronized void discard(String index) {
+        if (index.equals(stagedIndex)) {
+            stagedIndex = null;
+            staged = null;
+        }
+    }
+
+    public synchronized int size() {
+        return fingerprints.size();
+    }
+}
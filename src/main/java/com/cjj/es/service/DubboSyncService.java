@@ -1,63 +1,223 @@
 package com.cjj.es.service;
 
+import com.cjj.es.api.ArticleSyncApi;
+import com.cjj.es.api.SyncDocsResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.dubbo.config.annotation.DubboService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 /**
- * Dubbo服务接口模拟实现
- * 负责接收外部调用并触发数据同步流程
- * 实现Dubbo->Kafka->ES数据流转的Dubbo入口
- * 遵循接口隔离原则：提供简洁的外部调用接口
+ * Dubbo同步服务实现
+ * 负责接收外部调用并触发数据同步流程，按aid回查数据库后直接批量写入ES，不经过Kafka；全量同步提交到与HTTP接口共用的后台任务；
+ * 通过Triple协议导出，RPC线程立即返回Future：批量同步在独立的执行器中执行（虚拟线程模式下每个请求一个虚拟线程），
+ * 同时执行数和等待数由信号量限制，等待数超过上限时直接返回失败结果，由调用方重试；单文档同步交由合并器合并为批量写入
  */
-@Service
-public class DubboSyncService {
+@DubboService(protocol = "tri")
+public class DubboSyncService implements ArticleSyncApi {
+
+    private static final Logger log = LoggerFactory.getLogger(DubboSyncService.class);
 
     @Autowired
     private ESService esService;
 
+    @Autowired
+    private FullSyncJobService fullSyncJobService;
+
+    @Autowired
+    private SingleDocSyncCoalescer singleDocSyncCoalescer;
+
+    @Autowired
+    private SyncExecutors syncExecutors;
+
+    // 同时执行ES写入的请求数
+    @Value("${es.dubbo.worker-threads:8}")
+    private int workerThreads;
+
+    // 等待执行的请求上限，超过后直接拒绝
+    @Value("${es.dubbo.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ExecutorService executor;
+
+    // 已接收未完成的请求（执行中和等待中），超过上限时拒绝
+    private Semaphore admitted;
+
+    // 执行中的请求
+    private Semaphore running;
+
+    @PostConstruct
+    public void init() {
+        executor = syncExecutors.newExecutor("dubbo-sync-worker-", workerThreads);
+        admitted = new Semaphore(workerThreads + queueCapacity);
+        running = new Semaphore(workerThreads);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
     /**
      * Dubbo接口：全量同步数据到ES
-     * 外部系统通过此接口触发数据同步
-     * 内部流程：查询数据库 -> 发送Kafka -> 写入ES
+     * 与HTTP接口GET /init/es共用全量同步任务，任务提交后立即返回任务ID和状态，调用方通过getSyncJob轮询进度；
+     * 已有任务在执行时返回失败及执行中的任务
+     * @return 提交结果
+     */
+    @Override
+    public CompletableFuture<Map<String, Object>> syncAll() {
+        log.info("收到Dubbo调用请求：开始全量同步数据到ES");
+
+        Map<String, Object> result = new HashMap<>();
+        FullSyncJob job = fullSyncJobService.trySubmit();
+        if (job == null) {
+            result.put("success", false);
+            result.put("message", "全量同步正在执行中");
+            FullSyncJob running = fullSyncJobService.getRunningJob();
+            if (running != null) {
+                result.put("jobId", running.getId());
+                result.put("job", running.toMap());
+            }
+            return CompletableFuture.completedFuture(result);
+        }
+
+        log.info("Dubbo全量同步任务已启动，任务ID: {}", job.getId());
+        result.put("success", true);
+        result.put("message", "全量同步任务已启动");
+        result.put("jobId", job.getId());
+        result.put("job", job.toMap());
+        return CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * Dubbo接口：查询全量同步任务进度
+     * @param jobId 任务ID
+     * @return 任务进度，与GET /init/es/jobs/{jobId}一致
+     */
+    @Override
+    public CompletableFuture<Map<String, Object>> getSyncJob(String jobId) {
+        Map<String, Object> result = new HashMap<>();
+        FullSyncJob job = jobId == null ? null : fullSyncJobService.getJob(jobId);
+        if (job == null) {
+            result.put("success", false);
+            result.put("message", "任务不存在: " + jobId);
+        } else {
+            result.put("success", true);
+            result.put("job", job.toMap());
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * Dubbo接口：批量同步文章到ES
+     * 写入失败、排队已满等情况均以失败结果正常完成Future，不以异常结束
+     * @param aids 文章ID
      * @return 同步结果
      */
-    public Map<String, Object> syncAllDataToES() {
-        System.out.println("收到Dubbo调用请求：开始全量同步数据到ES");
-        
-        try {
-            // 调用ES服务执行同步
-            Map<String, Object> result = esService.fullSyncToES();
-            
-            // 记录调用结果
-            boolean success = (Boolean) result.get("success");
-            System.out.println("Dubbo调用完成，同步结果: " + (success ? "成功" : "失败"));
-            
-            return result;
-            
-        } catch (Exception e) {
-            System.err.println("Dubbo调用过程中发生错误: " + e.getMessage());
-            throw new RuntimeException("数据同步失败", e);
+    @Override
+    public CompletableFuture<SyncDocsResult> syncDocs(long[] aids) {
+        if (aids == null || aids.length == 0) {
+            return CompletableFuture.completedFuture(new SyncDocsResult(true, 0, 0, new long[0], null));
         }
+        // 去重，同一批内重复的aid只写一次
+        long[] distinct = Arrays.stream(aids).distinct().toArray();
+        log.debug("收到Dubbo调用请求：批量同步文档到ES，数量: {}", distinct.length);
+        return supplyAsync(() -> {
+            try {
+                return toResult(distinct, esService.syncByAids(Arrays.stream(distinct).boxed().toList()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof UncheckedIOException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            log.error("Dubbo批量同步过程中发生错误，数量: {}，错误: {}", distinct.length, cause.getMessage());
+            return SyncDocsResult.failure(distinct, "批量同步失败: " + cause.getMessage());
+        });
     }
 
     /**
      * Dubbo接口：同步单个文档到ES
+     * 交由合并器与其他单文档请求合并为一次回查和一个Bulk请求
      * @param aid 文章ID
-     * @return 同步结果
+     * @return 是否写入成功，写入异常时为false
      */
-    public boolean syncSingleDocToES(Long aid) {
-        System.out.println("收到Dubbo调用请求：同步单个文档到ES，ID: " + aid);
-        
-        try {
-            boolean result = esService.saveDocument(aid);
-            System.out.println("Dubbo单文档同步完成，结果: " + (result ? "成功" : "失败"));
-            return result;
-            
-        } catch (Exception e) {
-            System.err.println("Dubbo单文档同步过程中发生错误: " + e.getMessage());
+    @Override
+    public CompletableFuture<Boolean> syncDoc(Long aid) {
+        if (aid == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        log.debug("收到Dubbo调用请求：同步单个文档到ES，ID: {}", aid);
+        return singleDocSyncCoalescer.submit(aid).exceptionally(e -> {
+            log.error("Dubbo单文档同步过程中发生错误，ID: {}，错误: {}", aid, e.getMessage());
             return false;
+        });
+    }
+
+    /**
+     * 将批量写入结果转换为接口返回值
+     * 失败的文章包括转入死信的条目和所在Bulk请求整体失败的条目
+     */
+    private static SyncDocsResult toResult(long[] aids, BulkResult bulkResult) {
+        long[] failedAids = bulkResult.getFailedIds().stream().mapToLong(Long::parseLong).sorted().toArray();
+        String message = null;
+        if (bulkResult.getRequestFailures() > 0) {
+            message = "批量写入ES失败，失败请求数: " + bulkResult.getRequestFailures()
+                    + (bulkResult.getLastError() != null ? "，错误: " + bulkResult.getLastError().getMessage() : "");
+        } else if (failedAids.length > 0) {
+            message = "部分文档写入失败，已转入死信: " + failedAids.length;
+        }
+        if (message != null) {
+            log.error("Dubbo批量同步部分失败，数量: {}，成功: {}，失败: {}", aids.length,
+                    bulkResult.getSuccessCount(), failedAids.length);
+        }
+        return new SyncDocsResult(message == null, aids.length, bulkResult.getSuccessCount(), failedAids, message);
+    }
+
+    /**
+     * 在执行器中执行，等待数已满时返回以拒绝异常结束的Future
+     */
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        if (!admitted.tryAcquire()) {
+            log.warn("Dubbo同步请求被拒绝，执行中: {}，等待上限: {}", workerThreads - running.availablePermits(), queueCapacity);
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Dubbo同步请求排队已满"));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    running.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("等待执行时被中断");
+                }
+                try {
+                    return task.get();
+                } finally {
+                    running.release();
+                }
+            }, executor).whenComplete((result, ex) -> admitted.release());
+        } catch (RuntimeException e) {
+            // 执行器已关闭
+            admitted.release();
+            return CompletableFuture.failedFuture(e);
         }
     }
-}
\ No newline at end of file
+}
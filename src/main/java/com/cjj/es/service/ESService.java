@@ -1,23 +1,30 @@
 package com.cjj.es.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.ElasticsearchException;
-import co.elastic.clients.elasticsearch._types.Result;
 import co.elastic.clients.elasticsearch.core.*;
 import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
 import com.cjj.es.entity.Article;
+import com.cjj.es.entity.ArticleDocument;
 import com.cjj.es.mapper.ArticleMapper;
+import com.cjj.es.util.HtmlTextCleaner;
+import com.cjj.es.util.LongBooleanCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 /**
  * Elasticsearch服务层
@@ -28,6 +35,8 @@ import java.util.regex.Pattern;
 @Service
 public class ESService {
 
+    private static final Logger log = LoggerFactory.getLogger(ESService.class);
+
     @Autowired
     private ElasticsearchClient elasticsearchClient;
 
@@ -35,252 +44,597 @@ public class ESService {
     private ArticleMapper articleMapper;
 
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private BulkIndexService bulkIndexService;
+
+    @Autowired
+    private ArticleIndexManager articleIndexManager;
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    @Autowired
+    private DocumentFingerprintStore fingerprintStore;
+
+    @Autowired
+    private FullSyncExtractor fullSyncExtractor;
+
+    @Autowired
+    private DocumentExistenceCache existenceCache;
+
+    // ES索引名称（别名，指向当前版本索引）
+    private static final String INDEX_NAME = ArticleIndexManager.ALIAS;
 
-    // ES索引名称
-    private static final String INDEX_NAME = "article_index";
+    // 全量同步每批次读取的文章数量
+    @Value("${es.sync.batch-size:1000}")
+    private int syncBatchSize;
 
-    // Kafka主题名称
-    private static final String KAFKA_TOPIC = "es_sync_topic";
+    // 全量同步每写入多少批次等待ES确认并保存一次分区检查点
+    @Value("${es.sync.full.checkpoint-interval-batches:20}")
+    private int checkpointIntervalBatches;
 
-    // HTML标签清理的正则表达式
-    private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]+>");
+    // 全量同步是否写入新版本索引并在完成后切换别名
+    @Value("${es.index.blue-green.enabled:true}")
+    private boolean blueGreenEnabled;
+
+    // 别名切换后补写全量同步期间变更数据时，向前多回溯的毫秒数
+    @Value("${es.sync.incremental.safety-lag-ms:5000}")
+    private long catchUpLagMillis;
+
+    // 消费端回查数据库时每次查询的文章数量
+    @Value("${es.sync.hydrate-batch-size:500}")
+    private int hydrateBatchSize;
+
+    // 批量检查文档存在性时每个mget请求的ID数量
+    @Value("${es.lookup.mget-batch-size:1000}")
+    private int mgetBatchSize;
 
     /**
      * HTML标签清理工具方法
      * 移除content字段中的HTML标签，保证写入ES的数据纯净
+     * 单次遍历完成去标签、丢弃script/style、实体解码和空白合并，见HtmlTextCleaner
      * @param htmlContent 包含HTML标签的内容
      * @return 清理后的纯文本内容
      */
     public String removeHtmlTags(String htmlContent) {
-        if (htmlContent == null || htmlContent.trim().isEmpty()) {
-            return "";
-        }
-
-        // 移除HTML标签
-        String cleanContent = HTML_TAG_PATTERN.matcher(htmlContent).replaceAll("");
-
-        // 清理多余的空白字符
-        cleanContent = cleanContent.replaceAll("\\s+", " ").trim();
-
-        // 解码HTML实体（如&nbsp;、&lt;等）
-        cleanContent = cleanContent.replace("&nbsp;", " ")
-                .replace("&lt;", "<")
-                .replace("&gt;", ">")
-                .replace("&amp;", "&")
-                .replace("&quot;", "\"");
-
-        return cleanContent;
+        return HtmlTextCleaner.clean(htmlContent);
     }
 
     /**
      * 构建ES文档数据
-     * 将数据库Article实体转换为ES文档格式
-     * 不做复杂格式转换，直接映射三个核心字段
+     * 将数据库Article实体转换为ES文档，字段与索引模板中的显式映射一一对应；包内可见，供基准测试直接调用
      * @param article 数据库文章实体
-     * @return ES文档数据Map
+     * @return ES文档
      */
-    private Map<String, Object> buildESDocument(Article article) {
-        Map<String, Object> document = new HashMap<>();
-
-        // 直接映射aid字段
-        document.put("aid", article.getAid());
-
-        // 直接映射title字段
-        document.put("title", article.getTitle());
-
-        // 清理HTML标签后映射content字段
-        String cleanContent = removeHtmlTags(article.getContent());
-        document.put("content", cleanContent);
+    ArticleDocument buildESDocument(Article article) {
+        return ArticleDocument.from(article);
+    }
 
-        // 添加时间戳字段（使用当前时间）
-        document.put("timestamp", java.time.LocalDateTime.now()
-                .format(java.time.format.DateTimeFormatter.ofPattern("yy/MM/dd HH:mm:ss")));
+    /**
+     * 处理一次Kafka拉取的全部同步消息
+     * 完整数据、aid列表、aid区间三类消息合并到同一个批量写入会话，
+     * 由BulkIndexService按大小切分，方法返回即表示ES已确认写入
+     * @param articles 完整数据消息中的文章
+     * @param aids aid列表消息中的文章ID（已去重）
+     * @param ranges aid区间消息，每项为[startAid, endAid]闭区间
+     * @return 成功写入的文档数量
+     * @throws IOException 存在整个Bulk请求写入失败时抛出，调用方不应提交位移
+     */
+    public int processSyncBatchFromKafka(List<Article> articles, List<Long> aids, List<long[]> ranges)
+            throws IOException {
+        BulkResult bulkResult = writeBatch(articles, aids, ranges);
+        checkBulkResult(bulkResult);
+        return bulkResult.getSuccessCount();
+    }
 
-        return document;
+    /**
+     * 按aid列表同步文章到ES
+     * 批量回查数据库后写入，已软删除的文章和数据库中已不存在但ES中仍有的文章从ES删除，方法返回即表示ES已确认写入；
+     * 写入失败不抛出异常，失败的文章ID见BulkResult.getFailedIds()
+     * @param aids 文章ID列表（调用方已去重）
+     * @return 批量写入结果
+     * @throws IOException 回查数据库失败或等待写入被中断时抛出
+     */
+    public BulkResult syncByAids(List<Long> aids) throws IOException {
+        return writeBatch(List.of(), aids, List.of());
     }
 
     /**
-     * 发送数据到Kafka
-     * 实现Dubbo->Kafka->ES的数据流转第二步
-     * @param articles 文章数据列表
+     * 将三类同步数据写入同一个批量写入会话，返回ES确认后的写入结果
      */
-    private void sendToKafka(List<Article> articles) {
+    private BulkResult writeBatch(List<Article> articles, List<Long> aids, List<long[]> ranges) throws IOException {
+        BulkIndexService.BulkSession session = bulkIndexService.openSession();
         try {
-            // 构建Kafka消息体
-            Map<String, Object> kafkaMessage = new HashMap<>();
-            kafkaMessage.put("operation", "bulk_index");
-            kafkaMessage.put("index", INDEX_NAME);
-            kafkaMessage.put("data", articles);
-            kafkaMessage.put("timestamp", System.currentTimeMillis());
-
-            // 发送到Kafka
-            kafkaTemplate.send(KAFKA_TOPIC, kafkaMessage);
-            System.out.println("数据已发送到Kafka，文章数量: " + articles.size());
+            if (!articles.isEmpty()) {
+                addToBulkSession(session, articles, INDEX_NAME, false, true);
+            }
+            if (!aids.isEmpty()) {
+                hydrateIds(session, aids);
+            }
+            for (long[] range : ranges) {
+                hydrateRange(session, range[0], range[1]);
+            }
+            return session.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("批量写入ES被中断");
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("发送数据到Kafka失败: " + e.getMessage());
-            throw new RuntimeException("Kafka发送失败", e);
+    /**
+     * 按aid列表批量回查数据库并加入批量会话
+     * 每次IN查询的ID数量受es.sync.hydrate-batch-size限制
+     */
+    private void hydrateIds(BulkIndexService.BulkSession session, List<Long> aids)
+            throws IOException, InterruptedException {
+        int hydrated = 0;
+        int deleted = 0;
+        for (int from = 0; from < aids.size(); from += hydrateBatchSize) {
+            List<Long> chunk = aids.subList(from, Math.min(from + hydrateBatchSize, aids.size()));
+            List<Article> articles = syncMetrics.timeDbRead("by_aids", () -> articleMapper.selectByAids(chunk));
+            hydrated += articles.size();
+            addToBulkSession(session, articles);
+            deleted += addMissingToBulkSession(session, chunk, articles);
+        }
+        if (hydrated < aids.size()) {
+            log.warn("部分文章在数据库中不存在，请求: {}，回查到: {}，从ES删除: {}", aids.size(), hydrated, deleted);
         }
     }
 
     /**
-     * 处理Kafka消息并批量写入ES
-     * 实现Dubbo->Kafka->ES的数据流转第三步
-     * 使用ES Bulk API提高写入性能
-     * @param articles 从Kafka接收的文章数据
-     * @return 成功写入的文档数量
+     * 将数据库中已不存在（物理删除）、ES中仍有文档的文章转换为删除操作加入批量会话
+     * 存在性由documentsExist判断，优先读取近端缓存，ES中本就没有的文章不产生删除请求
+     * @param requested 请求同步的aid
+     * @param found 按requested回查到的文章
+     * @return 加入会话的删除操作数
+     * @throws IOException 查询ES存在性失败时抛出
      */
-    public int processBulkIndexFromKafka(List<Article> articles) throws IOException {
-        if (articles == null || articles.isEmpty()) {
+    public int addMissingToBulkSession(BulkIndexService.BulkSession session, List<Long> requested, List<Article> found)
+            throws IOException, InterruptedException {
+        if (found.size() >= requested.size()) {
             return 0;
         }
+        Set<Long> foundAids = new HashSet<>();
+        for (Article article : found) {
+            foundAids.add(article.getAid());
+        }
+        long[] missing = requested.stream()
+                .filter(aid -> !foundAids.contains(aid))
+                .mapToLong(Long::longValue)
+                .toArray();
+        boolean[] exists = documentsExist(missing);
+        int deleted = 0;
+        for (int i = 0; i < missing.length; i++) {
+            if (exists[i]) {
+                session.add(deleteItem(String.valueOf(missing[i]), INDEX_NAME, 0L));
+                deleted++;
+            }
+        }
+        return deleted;
+    }
 
-        // 构建批量操作请求
-        List<BulkOperation> bulkOperations = new ArrayList<>();
+    /**
+     * 按aid闭区间游标回查数据库并加入批量会话
+     */
+    private void hydrateRange(BulkIndexService.BulkSession session, long startAid, long endAid)
+            throws InterruptedException {
+        long lastAid = startAid - 1;
+        while (true) {
+            long afterAid = lastAid;
+            List<Article> articles = syncMetrics.timeDbRead("range_after_aid",
+                    () -> articleMapper.selectRangeAfterAid(afterAid, endAid, hydrateBatchSize));
+            if (articles.isEmpty()) {
+                break;
+            }
+            addToBulkSession(session, articles, INDEX_NAME, false, true);
+            lastAid = articles.get(articles.size() - 1).getAid();
+            if (articles.size() < hydrateBatchSize) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 将变更文章转换为ES写入操作并加入批量写入会话
+     * 已软删除的文章转换为删除操作，其余转换为索引操作，内容指纹未变的文章跳过；
+     * 会话达到阈值时自动发送，在途请求已满时阻塞；写入成功后统计端到端新鲜度
+     */
+    public void addToBulkSession(BulkIndexService.BulkSession session, List<Article> articles)
+            throws InterruptedException {
+        addToBulkSession(session, articles, INDEX_NAME, true, true);
+    }
 
+    /**
+     * 将文章转换为ES写入操作并加入批量写入会话
+     * @param index 目标索引（别名或版本索引）
+     * @param trackFreshness 是否统计新鲜度，全量重建写入的是存量数据，统计没有意义
+     * @param skipUnchanged 是否跳过内容指纹未变的文章，写入新建的版本索引时必须全部写入
+     * @return 因内容未变跳过的文章数
+     */
+    private int addToBulkSession(BulkIndexService.BulkSession session, List<Article> articles, String index,
+                                 boolean trackFreshness, boolean skipUnchanged) throws InterruptedException {
+        int skipped = 0;
         for (Article article : articles) {
+            String id = String.valueOf(article.getAid());
+            long sourceUpdateTime = trackFreshness && article.getUpdateTime() != null ? article.getUpdateTime() : 0L;
+
+            if (Integer.valueOf(1).equals(article.getDeleted())) {
+                // 软删除的文章从索引中移除
+                session.add(deleteItem(id, index, sourceUpdateTime));
+                continue;
+            }
+
             // 构建ES文档数据
-            Map<String, Object> document = buildESDocument(article);
+            ArticleDocument document = buildESDocument(article);
+            long fingerprint = fingerprintStore.isEnabled() ? document.fingerprint() : 0L;
+            if (skipUnchanged && fingerprint != 0 && fingerprintStore.isUnchanged(article.getAid(), fingerprint)) {
+                // 与ES中最近一次写入的内容一致，不再序列化发送
+                skipped++;
+                continue;
+            }
 
             // 创建索引操作
-            IndexOperation<Map<String, Object>> indexOp = IndexOperation.of(i -> i
-                    .index(INDEX_NAME)
-                    .id(String.valueOf(article.getAid()))
+            IndexOperation<ArticleDocument> indexOp = IndexOperation.of(i -> i
+                    .index(index)
+                    .id(id)
                     .document(document)
             );
 
-            // 添加到批量操作列表
-            bulkOperations.add(BulkOperation.of(b -> b.index(indexOp)));
+            // 添加到批量会话，由引擎自动切分发送
+            session.add(new BulkItem(id, BulkOperation.of(b -> b.index(indexOp)), document.estimatedBytes(),
+                    sourceUpdateTime, fingerprint));
         }
+        syncMetrics.recordUnchangedSkipped(skipped);
+        return skipped;
+    }
 
-        // 执行批量写入
-        BulkRequest bulkRequest = BulkRequest.of(b -> b
-                .index(INDEX_NAME)
-                .operations(bulkOperations)
-        );
-
-        BulkResponse bulkResponse = elasticsearchClient.bulk(bulkRequest);
-
-        // 统计成功写入的文档数量
-        int successCount = 0;
-        if (bulkResponse.errors()) {
-            System.err.println("批量写入ES时发生错误");
-            bulkResponse.items().forEach(item -> {
-                if (item.error() != null) {
-                    System.err.println("文档写入失败: " + item.error().reason());
-                }
-            });
+    /**
+     * 构建删除文档的批量写入条目
+     */
+    private static BulkItem deleteItem(String id, String index, long sourceUpdateTime) {
+        return new BulkItem(id, BulkOperation.of(b -> b.delete(d -> d.index(index).id(id))), 128, sourceUpdateTime, 0L);
+    }
+
+    /**
+     * 校验批量写入结果，存在整个请求失败时抛出异常
+     */
+    private void checkBulkResult(BulkResult bulkResult) throws IOException {
+        if (bulkResult.getRequestFailures() > 0) {
+            throw new IOException("批量写入ES失败，失败请求数: " + bulkResult.getRequestFailures(),
+                    bulkResult.getLastError());
+        }
+        if (bulkResult.getFailedCount() > 0) {
+            log.error("批量写入ES部分失败，成功: {}，转入死信: {}，重试: {}",
+                    bulkResult.getSuccessCount(), bulkResult.getFailedCount(), bulkResult.getRetriedCount());
         } else {
-            successCount = bulkOperations.size();
-            System.out.println("批量写入ES成功，文档数量: " + successCount);
+            log.info("批量写入ES成功，文档数量: {}，速率: {} docs/s",
+                    bulkResult.getSuccessCount(), bulkResult.getDocsPerSecond());
         }
-
-        return successCount;
     }
 
     /**
      * 全量数据同步到ES
-     * 实现Dubbo->Kafka->ES的完整数据流转
-     * 通过Bulk API提高写入性能
+     * 直接写入目标索引，不经过Kafka，检查点与进度均以ES确认为准
+     * 按aid分区并行游标读取数据库，批次经有界队列交给本线程发送并写入ES，
+     * 内存中只保留队列中的批次，占用不随表数据量增长；定期等待ES确认后保存各分区检查点；
+     * 启用蓝绿切换且需要重建时（任务要求重建，或别名尚未指向版本索引）写入新版本索引，完成后切换别名，
+     * 读请求不会看到写了一半的索引，版本索引的内容指纹暂存到切换别名时生效；
+     * 其余情况原地写入别名，内容指纹未变的文档跳过，软删除的文章从ES删除；
+     * 失败或进程重启后重新提交时从检查点继续，蓝绿切换续写保留下来的版本索引，只同步剩余数据；
+     * 由FullSyncJobService在后台线程中调用，每批次更新任务进度并检查取消标记
+     * @param job 全量同步任务
      * @return 操作结果信息
      */
-    public Map<String, Object> fullSyncToES() {
+    public Map<String, Object> fullSyncToES(FullSyncJob job) {
         Map<String, Object> result = new HashMap<>();
+        String targetIndex = INDEX_NAME;
+        boolean versionCreated = false;
 
         try {
-            System.out.println("开始全量同步数据到ES...");
+            long startTime = System.currentTimeMillis();
+            boolean rebuild = blueGreenEnabled && (job.isRebuild() || !articleIndexManager.isAliasOnVersion());
+            // 上次中断留下的检查点：原地同步继续写入别名，重建继续写入保留下来的版本索引
+            FullSyncExtractor.Checkpoint resumeFrom = job.isResume() ? fullSyncExtractor.loadCheckpoint() : null;
+            if (resumeFrom != null && !resumable(resumeFrom, rebuild)) {
+                resumeFrom = null;
+            }
+            if (resumeFrom == null) {
+                discardCheckpoint();
+            }
+            if (resumeFrom != null) {
+                targetIndex = resumeFrom.targetIndex();
+            } else if (rebuild) {
+                targetIndex = articleIndexManager.createNextVersion();
+            }
+            versionCreated = !INDEX_NAME.equals(targetIndex);
+            if (versionCreated) {
+                // 版本索引的指纹暂存到切换别名时生效，写入期间别名仍按旧索引的指纹跳过
+                fingerprintStore.stage(targetIndex);
+            }
+            // 补写变更以首次开始同步的时间为起点，覆盖中断前后的全部变更
+            long syncStartTime = resumeFrom != null ? resumeFrom.startTime() : startTime;
+            String checkpointJobId = resumeFrom != null ? resumeFrom.jobId() : job.getId();
+            List<FullSyncExtractor.Partition> partitions = resumeFrom != null ? resumeFrom.partitions() : fullSyncExtractor.plan();
+            if (resumeFrom != null) {
+                log.info("全量同步从检查点继续，任务ID: {}，首次任务ID: {}，目标索引: {}，分区: {}",
+                        job.getId(), checkpointJobId, targetIndex, partitions);
+                job.setEstimatedTotal(fullSyncExtractor.countRemaining(partitions));
+            } else {
+                log.info("开始全量同步数据到ES，任务ID: {}，目标索引: {}，分区: {}", job.getId(), targetIndex, partitions);
+                // 总数仅用于估算进度，同步期间新增的文章会使进度略超过100%
+                job.setEstimatedTotal(articleMapper.countArticles());
+            }
 
-            // 第一步：从数据库查询所有文章数据
-            List<Article> articles = articleMapper.selectAllArticles();
-            if (articles == null || articles.isEmpty()) {
+            if (partitions.isEmpty()) {
+                abandonVersion(versionCreated, targetIndex);
                 result.put("success", false);
                 result.put("message", "数据库中没有文章数据");
                 return result;
             }
 
-            System.out.println("从数据库查询到 " + articles.size() + " 篇文章");
+            int totalCount = 0;
+            int unchangedCount = 0;
+            int batchNo = 0;
+            int batchesSinceCheckpoint = 0;
+
+            // 整个全量同步共用一个批量会话；各分区并行读库，写入线程从共享队列取批次，与多个Bulk请求流水线并行
+            BulkIndexService.BulkSession session = bulkIndexService.openSession();
+            // 原地同步需要读取软删除的文章，从别名中删除
+            FullSyncExtractor.Extraction extraction = fullSyncExtractor.start(partitions, !versionCreated);
+
+            try {
+                FullSyncExtractor.Batch extracted;
+                while ((extracted = extraction.next()) != null) {
+                    if (job.isCancelRequested()) {
+                        extraction.close();
+                        // 等待已发出的请求结束后再放弃版本索引，避免在途写入重新创建已删除的索引
+                        session.awaitCompletion();
+                        if (!versionCreated && session.getRequestFailures() == 0) {
+                            // 原地同步保存取消时的进度，下次从此处继续
+                            checkpoint(targetIndex, checkpointJobId, syncStartTime, partitions);
+                        }
+                        throw new CancellationException("全量同步已取消");
+                    }
+                    List<Article> batch = extracted.articles();
+                    batchNo++;
+
+                    // 直接写入目标索引，不再经Kafka转发：消费端会把同一批数据再回查写入别名，
+                    // 蓝绿切换时还会写入即将下线的旧索引
+                    unchangedCount += addToBulkSession(session, batch, targetIndex, false, !versionCreated);
+                    totalCount += batch.size();
+                    job.updateProgress(totalCount, session.getSuccessCount(), session.getFailedCount());
+
+                    if (++batchesSinceCheckpoint >= checkpointIntervalBatches) {
+                        // 等待此前的批次全部得到ES确认后推进各分区检查点
+                        session.awaitCompletion();
+                        if (session.getRequestFailures() > 0) {
+                            break;
+                        }
+                        checkpoint(targetIndex, checkpointJobId, syncStartTime, partitions);
+                        batchesSinceCheckpoint = 0;
+                        log.info("全量同步检查点 - 批次: {}，累计读取: {}，写入成功: {}，分区: {}，在途请求: {}",
+                                batchNo, totalCount, session.getSuccessCount(), partitions,
+                                bulkIndexService.getInFlightRequests());
+                    }
+                }
+            } finally {
+                extraction.close();
+            }
 
-            // 第二步：发送数据到Kafka（模拟Dubbo调用）
-            sendToKafka(articles);
+            // 等待所有Bulk请求完成
+            BulkResult bulkResult = session.finish();
+            job.updateProgress(totalCount, bulkResult.getSuccessCount(), bulkResult.getFailedCount());
+            checkBulkResult(bulkResult);
+            checkpoint(targetIndex, checkpointJobId, syncStartTime, partitions);
+            int successCount = bulkResult.getSuccessCount();
+
+            if (versionCreated) {
+                // 恢复索引设置、段合并并切换别名
+                articleIndexManager.promote(targetIndex);
+                // 别名已指向新索引，启用其暂存的指纹；补写的变更随后按别名记录
+                fingerprintStore.publish(targetIndex);
+                // 补写全量同步期间通过别名写入旧索引的变更
+                int catchUpCount = catchUpChangesSince(syncStartTime - catchUpLagMillis);
+                result.put("catchUpCount", catchUpCount);
+            }
 
-            // 第三步：模拟从Kafka消费数据并写入ES
-            // 在实际应用中，这部分应该在Kafka消费者中处理
-            int successCount = processBulkIndexFromKafka(articles);
+            fullSyncExtractor.clearCheckpoint();
+            long totalCost = Math.max(1, System.currentTimeMillis() - startTime);
 
             // 返回结果
             result.put("success", true);
             result.put("message", "全量同步完成");
-            result.put("totalCount", articles.size());
+            result.put("index", targetIndex);
+            result.put("totalCount", totalCount);
             result.put("successCount", successCount);
+            result.put("unchangedCount", unchangedCount);
+            result.put("batchCount", batchNo);
+            result.put("resumed", resumeFrom != null);
+            result.put("rebuild", versionCreated);
+            result.put("costMillis", totalCost);
 
-            System.out.println("全量同步ES完成，总文章数: " + articles.size() + "，成功写入: " + successCount);
+            log.info("全量同步ES完成，目标索引: {}，总文章数: {}，成功写入: {}，内容未变跳过: {}，批次数: {}，总耗时: {}ms，平均速率: {} docs/s",
+                    targetIndex, totalCount, successCount, unchangedCount, batchNo, totalCost,
+                    totalCount * 1000L / totalCost);
 
+        } catch (CancellationException e) {
+            result.put("success", false);
+            result.put("cancelled", true);
+            result.put("message", e.getMessage());
+            log.warn("全量同步已取消，任务ID: {}", job.getId());
+            abandonVersion(versionCreated, targetIndex);
         } catch (Exception e) {
             result.put("success", false);
             result.put("message", "全量同步失败: " + e.getMessage());
-            System.err.println("全量同步ES失败: " + e.getMessage());
-            e.printStackTrace();
+            log.error("全量同步ES失败: {}", e.getMessage(), e);
+            FullSyncExtractor.Checkpoint saved = fullSyncExtractor.loadCheckpoint();
+            if (versionCreated && saved != null && targetIndex.equals(saved.targetIndex())) {
+                // 已有检查点的版本索引保留，重新提交全量同步时从检查点继续，只写入剩余数据
+                log.warn("保留版本索引 {} 及检查点，重新提交全量同步将从检查点继续", targetIndex);
+            } else {
+                abandonVersion(versionCreated, targetIndex);
+            }
+            if (e instanceof InterruptedException) {
+                // 清理完成后恢复中断标记（应用关闭时执行线程被中断）
+                Thread.currentThread().interrupt();
+            }
         }
 
         return result;
     }
 
     /**
-     * 保存单个文档到ES
-     * @param aid 文章ID
-     * @return 是否保存成功
+     * 推进各分区检查点并持久化，调用前此前加入会话的条目必须已得到ES确认
      */
-    public boolean saveDocument(Long aid) {
-        try {
-            // 从数据库查询文章
-            Article article = articleMapper.selectByAid(aid);
-            if (article == null) {
-                System.err.println("文章不存在: " + aid);
-                return false;
-            }
+    private void checkpoint(String targetIndex, String jobId, long startTime,
+                            List<FullSyncExtractor.Partition> partitions) {
+        for (FullSyncExtractor.Partition partition : partitions) {
+            partition.commit();
+        }
+        fullSyncExtractor.saveCheckpoint(targetIndex, jobId, startTime, partitions);
+    }
 
-            // 构建ES文档
-            Map<String, Object> document = buildESDocument(article);
+    /**
+     * 判断检查点能否用于本次同步
+     * 写入别名的检查点只能续传原地同步；版本索引的检查点在启用蓝绿切换、索引仍存在且未上线时续传重建
+     */
+    private boolean resumable(FullSyncExtractor.Checkpoint checkpoint, boolean rebuild) throws IOException {
+        if (INDEX_NAME.equals(checkpoint.targetIndex())) {
+            return !rebuild;
+        }
+        return blueGreenEnabled && articleIndexManager.isResumableVersion(checkpoint.targetIndex());
+    }
 
-            // 保存到ES
-            IndexRequest<Map<String, Object>> request = IndexRequest.of(i -> i
-                    .index(INDEX_NAME)
-                    .id(String.valueOf(aid))
-                    .document(document)
-            );
+    /**
+     * 丢弃检查点，检查点对应的未上线版本索引一并删除
+     */
+    private void discardCheckpoint() throws IOException {
+        FullSyncExtractor.Checkpoint checkpoint = fullSyncExtractor.loadCheckpoint();
+        if (checkpoint == null) {
+            return;
+        }
+        if (articleIndexManager.isResumableVersion(checkpoint.targetIndex())) {
+            articleIndexManager.deleteVersion(checkpoint.targetIndex());
+        }
+        fullSyncExtractor.clearCheckpoint();
+        log.info("已丢弃全量同步检查点，目标索引: {}", checkpoint.targetIndex());
+    }
 
-            IndexResponse response = elasticsearchClient.index(request);
-            boolean success = response.result() == Result.Created || response.result() == Result.Updated;
+    /**
+     * 放弃未完成的版本索引，别名仍指向旧版本，该索引的检查点和暂存的内容指纹一并作废
+     */
+    private void abandonVersion(boolean versionCreated, String targetIndex) {
+        if (!versionCreated) {
+            return;
+        }
+        fingerprintStore.discard(targetIndex);
+        fullSyncExtractor.clearCheckpoint();
+        try {
+            articleIndexManager.deleteVersion(targetIndex);
+        } catch (Exception deleteException) {
+            log.error("删除未完成的版本索引失败: {}", deleteException.getMessage());
+        }
+    }
 
-            if (success) {
-                System.out.println("文档保存成功 ID: " + aid);
+    /**
+     * 补写指定时间之后变更的文章到别名
+     * 全量同步写新版本索引期间，单文档同步和增量同步仍写入旧索引，切换别名后需要补写这部分变更
+     * @param sinceUpdateTime 起始更新时间
+     * @return 补写的文章数量
+     */
+    private int catchUpChangesSince(long sinceUpdateTime) throws IOException, InterruptedException {
+        BulkIndexService.BulkSession session = bulkIndexService.openSession();
+        long updateTime = sinceUpdateTime;
+        long aid = 0L;
+        long upperTime = System.currentTimeMillis();
+        int count = 0;
+        while (true) {
+            long sinceTime = updateTime;
+            long sinceAid = aid;
+            List<Article> batch = syncMetrics.timeDbRead("changed_since",
+                    () -> articleMapper.selectChangedSince(sinceTime, sinceAid, upperTime, syncBatchSize));
+            if (batch.isEmpty()) {
+                break;
             }
-            return success;
-
-        } catch (IOException e) {
-            System.err.println("保存文档时发生IO错误: " + e.getMessage());
-            return false;
-        } catch (ElasticsearchException e) {
-            System.err.println("ES操作错误: " + e.getMessage());
-            return false;
+            // 当前指纹已替换为新索引的暂存指纹，与新索引中内容一致的文章跳过
+            addToBulkSession(session, batch, INDEX_NAME, true, true);
+            count += batch.size();
+            Article last = batch.get(batch.size() - 1);
+            updateTime = last.getUpdateTime();
+            aid = last.getAid();
+            if (batch.size() < syncBatchSize) {
+                break;
+            }
+        }
+        checkBulkResult(session.finish());
+        if (count > 0) {
+            log.info("别名切换后补写变更文章: {}", count);
         }
+        return count;
     }
 
     /**
      * 检查文档是否存在于ES中
+     * 优先读取存在性近端缓存，未命中时通过documentsExist查询ES并填充缓存
      * @param aid 文章ID
-     * @return 是否存在
+     * @return 是否存在，查询ES失败时返回false
      */
     public boolean documentExists(Long aid) {
         try {
-            return elasticsearchClient.exists(e -> e
-                    .index(INDEX_NAME)
-                    .id(String.valueOf(aid))
-            ).value();
+            return documentsExist(new long[]{aid})[0];
         } catch (Exception e) {
-            System.err.println("检查文档存在性时出错: " + e.getMessage());
+            log.error("检查文档存在性时出错，ID: {}，错误: {}", aid, e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 批量检查文档是否存在于ES中
+     * 命中缓存的aid直接返回，其余aid按es.lookup.mget-batch-size分批用mget（不返回_source）查询并填充缓存
+     * @param aids 文章ID
+     * @return 与aids一一对应的存在性
+     * @throws IOException 查询ES失败或有文档查询出错时抛出
+     */
+    public boolean[] documentsExist(long[] aids) throws IOException {
+        boolean[] exists = new boolean[aids.length];
+        int[] missing = new int[aids.length];
+        int missingCount = 0;
+        for (int i = 0; i < aids.length; i++) {
+            int cached = existenceCache.get(aids[i]);
+            if (cached == LongBooleanCache.UNKNOWN) {
+                missing[missingCount++] = i;
+            } else {
+                exists[i] = cached == LongBooleanCache.TRUE;
+            }
+        }
+
+        for (int from = 0; from < missingCount; from += mgetBatchSize) {
+            int to = Math.min(missingCount, from + mgetBatchSize);
+            List<String> ids = new ArrayList<>(to - from);
+            long[] stamps = new long[to - from];
+            for (int i = from; i < to; i++) {
+                long aid = aids[missing[i]];
+                // 查询前读取槽位标记，查询期间有同步写入时不以查询结果覆盖
+                stamps[i - from] = existenceCache.stamp(aid);
+                ids.add(String.valueOf(aid));
+            }
+            @SuppressWarnings("rawtypes")
+            MgetResponse<Map> response = elasticsearchClient.mget(m -> m
+                    .index(INDEX_NAME)
+                    .ids(ids)
+                    .source(s -> s.fetch(false)), Map.class);
+            @SuppressWarnings("rawtypes")
+            List<MultiGetResponseItem<Map>> docs = response.docs();
+            for (int i = 0; i < docs.size(); i++) {
+                MultiGetResponseItem<?> doc = docs.get(i);
+                if (doc.isFailure()) {
+                    throw new IOException("查询文档是否存在失败，ID: " + doc.failure().id()
+                            + "，错误: " + doc.failure().error().reason());
+                }
+                int index = missing[from + i];
+                exists[index] = doc.result().found();
+                existenceCache.fill(aids[index], exists[index], stamps[i]);
+            }
+        }
+        return exists;
+    }
+}
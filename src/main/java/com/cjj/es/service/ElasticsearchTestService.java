@@ -1,18 +1,31 @@
 package com.cjj.es.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Elasticsearch测试服务
  * 提供ES连接检测等测试功能
  */
 @Service
 public class ElasticsearchTestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ElasticsearchTestService.class);
     
     @Autowired
     private ElasticsearchClient elasticsearchClient;
+
+    @Autowired
+    private PoolingNHttpClientConnectionManager esConnectionManager;
     
     /**
      * 检查ES连接是否正常
@@ -23,7 +36,7 @@ public class ElasticsearchTestService {
             // 通过ping检查ES连接状态
             return elasticsearchClient.ping().value();
         } catch (Exception e) {
-            System.err.println("ES连接检查失败: " + e.getMessage());
+            log.error("ES连接检查失败: {}", e.getMessage());
             return false;
         }
     }
@@ -36,8 +49,34 @@ public class ElasticsearchTestService {
         try {
             return elasticsearchClient.info().clusterName();
         } catch (Exception e) {
-            System.err.println("获取ES集群信息失败: " + e.getMessage());
+            log.error("获取ES集群信息失败: {}", e.getMessage());
             return "获取失败";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取ES连接池统计
+     * leased为正在使用的连接数，pending为等待获取连接的请求数，pending持续大于0说明连接池成为瓶颈
+     * @return 总体及每个节点的连接池统计
+     */
+    public Map<String, Object> getConnectionPoolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", toMap(esConnectionManager.getTotalStats()));
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : esConnectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), toMap(esConnectionManager.getStats(route)));
+        }
+        stats.put("routes", routes);
+        return stats;
+    }
+
+    private static Map<String, Object> toMap(PoolStats poolStats) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("leased", poolStats.getLeased());
+        map.put("pending", poolStats.getPending());
+        map.put("available", poolStats.getAvailable());
+        map.put("max", poolStats.getMax());
+        return map;
+    }
+}
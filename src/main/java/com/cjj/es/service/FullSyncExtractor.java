@@ -0,0 +1,414 @@
+package com.cjj.es.service;
+
+import com.cjj.es.entity.Article;
+import com.cjj.es.mapper.ArticleMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 全量同步分区并行读取
+ * 按MIN/MAX(aid)把主键空间切成等宽小桶并统计各桶行数，再合并为数据量相近的若干分区，
+ * 各分区并行按游标读取（同时执行的查询数由信号量限制，每个查询占用一个数据库连接），批次放入共享的有界队列，
+ * 由同步线程取出后写入ES；队列满时读取线程阻塞，读库速度不会超过ES写入速度。
+ * 各分区已被ES确认的进度作为检查点持久化，失败后可从检查点继续
+ */
+@Component
+public class FullSyncExtractor {
+
+    private static final Logger log = LoggerFactory.getLogger(FullSyncExtractor.class);
+
+    // 检查点状态名称
+    private static final String CHECKPOINT_STATE = "full-sync-checkpoint";
+
+    // 每个分区对应的采样桶数
+    private static final int BUCKETS_PER_PARTITION = 4;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    @Autowired
+    private SyncStateStore syncStateStore;
+
+    @Autowired
+    private SyncExecutors syncExecutors;
+
+    // 分区数
+    @Value("${es.sync.full.partitions:8}")
+    private int partitionCount;
+
+    // 并行读取数（同时占用的数据库连接数，需小于连接池大小）
+    @Value("${es.sync.full.extract-threads:4}")
+    private int extractThreads;
+
+    // 每次从数据库读取的文章数量
+    @Value("${es.sync.batch-size:1000}")
+    private int batchSize;
+
+    // 读取线程与写入线程之间的队列容量（批次数）
+    @Value("${es.sync.full.queue-capacity:8}")
+    private int queueCapacity;
+
+    // 同时执行的数据库查询数；虚拟线程模式下所有分区同时读取，查询并发由此限制
+    private Semaphore dbPermits;
+
+    @PostConstruct
+    public void init() {
+        dbPermits = new Semaphore(extractThreads);
+    }
+
+    /**
+     * 划分aid分区
+     * @return 覆盖全部aid的分区列表，表为空时返回空列表
+     */
+    public List<Partition> plan() {
+        Long minAid = articleMapper.selectMinAid();
+        Long maxAid = articleMapper.selectMaxAid();
+        if (minAid == null || maxAid == null) {
+            return List.of();
+        }
+
+        int partitions = (int) Math.max(1, Math.min(partitionCount, maxAid - minAid + 1));
+        List<long[]> ranges;
+        if (partitions == 1) {
+            ranges = List.<long[]>of(new long[]{minAid, maxAid});
+        } else {
+            // 各桶行数并行统计
+            long[][] buckets = bucketRanges(minAid, maxAid, partitions * BUCKETS_PER_PARTITION);
+            long[] counts = new long[buckets.length];
+            ExecutorService pool = syncExecutors.newExecutor("es-full-extract-", Math.min(extractThreads, buckets.length));
+            try {
+                List<CompletableFuture<Void>> futures = new ArrayList<>(buckets.length);
+                for (int i = 0; i < buckets.length; i++) {
+                    int bucket = i;
+                    futures.add(CompletableFuture.runAsync(() -> counts[bucket] = withDbPermit(() ->
+                            articleMapper.countInRange(buckets[bucket][0], buckets[bucket][1])), pool));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            } finally {
+                pool.shutdownNow();
+            }
+            ranges = splitByCounts(buckets, counts, partitions);
+        }
+
+        List<Partition> result = new ArrayList<>(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            // 最后一个分区不设上限，同步期间新增的文章也会被读取
+            long endAid = i == ranges.size() - 1 ? Long.MAX_VALUE : range[1];
+            result.add(new Partition(i, range[0], endAid, range[0] - 1));
+        }
+        log.info("全量同步划分分区: {}，aid范围: {} - {}", result, minAid, maxAid);
+        return result;
+    }
+
+    /**
+     * 将[minAid, maxAid]切分为等宽的桶
+     * @return 每个桶的[起点, 终点]闭区间
+     */
+    static long[][] bucketRanges(long minAid, long maxAid, int bucketCount) {
+        long span = maxAid - minAid + 1;
+        int count = (int) Math.max(1, Math.min(bucketCount, span));
+        long width = (span + count - 1) / count;
+        List<long[]> buckets = new ArrayList<>(count);
+        for (long start = minAid; start <= maxAid; start += width) {
+            buckets.add(new long[]{start, Math.min(maxAid, start + width - 1)});
+        }
+        return buckets.toArray(new long[0][]);
+    }
+
+    /**
+     * 按各桶行数将相邻的桶合并为数据量相近的分区
+     * @param buckets 按aid升序排列的桶
+     * @param counts 各桶行数
+     * @param partitions 目标分区数
+     * @return 每个分区的[起点, 终点]闭区间，数量不超过目标分区数
+     */
+    static List<long[]> splitByCounts(long[][] buckets, long[] counts, int partitions) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        List<long[]> ranges = new ArrayList<>(partitions);
+        long start = buckets[0][0];
+        long accumulated = 0;
+        long consumed = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            accumulated += counts[i];
+            int remainingPartitions = partitions - ranges.size();
+            // 剩余数据按剩余分区数平分，每次达到均值即切分
+            long target = Math.max(1, (total - consumed + remainingPartitions - 1) / remainingPartitions);
+            boolean last = i == buckets.length - 1;
+            if (last || (remainingPartitions > 1 && accumulated >= target)) {
+                ranges.add(new long[]{start, buckets[i][1]});
+                consumed += accumulated;
+                accumulated = 0;
+                if (!last) {
+                    start = buckets[i + 1][0];
+                }
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * 开始并行读取
+     * @param partitions 分区（已完成的分区会被跳过）
+     * @param includeDeleted 是否读取软删除的记录：重建的新索引只需未删除的文章，原地同步需要读取后从ES删除
+     * @return 读取句柄，由调用线程逐批取出
+     */
+    public Extraction start(List<Partition> partitions, boolean includeDeleted) {
+        List<Partition> pending = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (!partition.isCompleted()) {
+                pending.add(partition);
+            }
+        }
+        Extraction extraction = new Extraction(pending.size(), includeDeleted,
+                syncExecutors.newExecutor("es-full-extract-", Math.min(extractThreads, pending.size())));
+        for (Partition partition : pending) {
+            extraction.pool.execute(() -> extraction.read(partition));
+        }
+        return extraction;
+    }
+
+    /**
+     * 统计各分区检查点之后剩余的文章数，用于估算续传任务的进度
+     */
+    public long countRemaining(List<Partition> partitions) {
+        long remaining = 0;
+        for (Partition partition : partitions) {
+            if (!partition.isCompleted()) {
+                remaining += articleMapper.countInRange(partition.committedAid + 1, partition.endAid);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * 保存检查点：各分区已被ES确认写入的最大aid
+     * 写入临时文件后原子替换，进程在任意时刻退出都不会留下不完整的检查点
+     * @param targetIndex 写入的目标索引
+     * @param jobId 首次开始同步的任务ID
+     * @param startTime 首次开始同步的时间，续传后补写变更时以此为起点
+     */
+    public void saveCheckpoint(String targetIndex, String jobId, long startTime, List<Partition> partitions) {
+        Properties state = new Properties();
+        state.setProperty("targetIndex", targetIndex);
+        state.setProperty("jobId", jobId);
+        state.setProperty("startTime", String.valueOf(startTime));
+        state.setProperty("partitions", String.valueOf(partitions.size()));
+        for (Partition partition : partitions) {
+            String prefix = "partition." + partition.index + ".";
+            state.setProperty(prefix + "start", String.valueOf(partition.startAid));
+            state.setProperty(prefix + "end", String.valueOf(partition.endAid));
+            state.setProperty(prefix + "committed", String.valueOf(partition.committedAid));
+        }
+        syncStateStore.save(CHECKPOINT_STATE, state);
+    }
+
+    /**
+     * 读取检查点
+     * @return 检查点，没有检查点时返回null
+     */
+    public Checkpoint loadCheckpoint() {
+        Properties state = syncStateStore.load(CHECKPOINT_STATE);
+        String targetIndex = state.getProperty("targetIndex");
+        if (targetIndex == null) {
+            return null;
+        }
+        int count = Integer.parseInt(state.getProperty("partitions", "0"));
+        List<Partition> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String prefix = "partition." + i + ".";
+            partitions.add(new Partition(i,
+                    Long.parseLong(state.getProperty(prefix + "start")),
+                    Long.parseLong(state.getProperty(prefix + "end")),
+                    Long.parseLong(state.getProperty(prefix + "committed"))));
+        }
+        if (partitions.isEmpty()) {
+            return null;
+        }
+        return new Checkpoint(targetIndex, state.getProperty("jobId"),
+                Long.parseLong(state.getProperty("startTime", "0")), partitions);
+    }
+
+    public void clearCheckpoint() {
+        syncStateStore.delete(CHECKPOINT_STATE);
+    }
+
+    /**
+     * 占用一个数据库查询许可执行查询
+     */
+    private <T> T withDbPermit(Supplier<T> query) {
+        try {
+            dbPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("等待数据库查询许可时被中断");
+        }
+        try {
+            return query.get();
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    /**
+     * aid分区
+     * 区间为[startAid, endAid]闭区间；committedAid为已被ES确认写入的最大aid（检查点），
+     * readAid为已交给写入线程的最大aid，只由写入线程读写
+     */
+    public static class Partition {
+
+        private final int index;
+        private final long startAid;
+        private final long endAid;
+        private volatile long committedAid;
+        private long readAid;
+        private volatile boolean exhausted;
+
+        Partition(int index, long startAid, long endAid, long committedAid) {
+            this.index = index;
+            this.startAid = startAid;
+            this.endAid = endAid;
+            this.committedAid = committedAid;
+            this.readAid = committedAid;
+        }
+
+        public boolean isCompleted() {
+            return committedAid >= endAid;
+        }
+
+        /**
+         * 此前交给写入线程的批次均已被ES确认后调用，推进检查点
+         */
+        public void commit() {
+            committedAid = exhausted ? endAid : readAid;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + "[" + startAid + "-" + endAid + (committedAid >= startAid ? ", 已确认" + committedAid : "") + "]";
+        }
+    }
+
+    /**
+     * 全量同步检查点
+     * @param targetIndex 写入的目标索引（原地同步为别名，蓝绿切换为版本索引）
+     * @param jobId 首次开始同步的任务ID
+     * @param startTime 首次开始同步的时间
+     * @param partitions 各分区及已确认的进度
+     */
+    public record Checkpoint(String targetIndex, String jobId, long startTime, List<Partition> partitions) {
+    }
+
+    /**
+     * 读取出的一个批次
+     * articles为空表示该分区已读取完毕
+     */
+    public record Batch(Partition partition, List<Article> articles) {
+    }
+
+    /**
+     * 一次并行读取
+     * 非线程安全：next和cancel应由同一个写入线程调用
+     */
+    public class Extraction {
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final ExecutorService pool;
+        private final boolean includeDeleted;
+        private int remainingPartitions;
+
+        private Extraction(int partitions, boolean includeDeleted, ExecutorService pool) {
+            this.remainingPartitions = partitions;
+            this.includeDeleted = includeDeleted;
+            this.pool = pool;
+        }
+
+        /**
+         * 按游标读取一个分区，每批放入队列，队列满时阻塞
+         */
+        private void read(Partition partition) {
+            try {
+                long lastAid = partition.committedAid;
+                while (true) {
+                    long afterAid = lastAid;
+                    List<Article> articles = withDbPermit(() -> syncMetrics.timeDbRead("full_partition",
+                            () -> includeDeleted
+                                    ? articleMapper.selectRangeAfterAid(afterAid, partition.endAid, batchSize)
+                                    : articleMapper.selectLiveRangeAfterAid(afterAid, partition.endAid, batchSize)));
+                    if (articles.isEmpty()) {
+                        break;
+                    }
+                    queue.put(new Batch(partition, articles));
+                    lastAid = articles.get(articles.size() - 1).getAid();
+                    if (articles.size() < batchSize) {
+                        break;
+                    }
+                }
+                queue.put(new Batch(partition, List.of()));
+            } catch (InterruptedException | CancellationException e) {
+                // 被取消
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("分区{}读取失败: {}", partition, e.getMessage());
+                try {
+                    queue.put(e);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * 取出下一批数据，队列为空时等待
+         * @return 下一批数据，全部分区读取完毕时返回null
+         * @throws IllegalStateException 有分区读取失败时抛出
+         */
+        public Batch next() throws InterruptedException {
+            while (remainingPartitions > 0) {
+                Object item = queue.take();
+                if (item instanceof RuntimeException e) {
+                    throw new IllegalStateException("分区读取失败: " + e.getMessage(), e);
+                }
+                Batch batch = (Batch) item;
+                if (batch.articles().isEmpty()) {
+                    batch.partition().exhausted = true;
+                    remainingPartitions--;
+                    continue;
+                }
+                batch.partition().readAid = batch.articles().get(batch.articles().size() - 1).getAid();
+                return batch;
+            }
+            close();
+            return null;
+        }
+
+        /**
+         * 停止读取并释放线程
+         */
+        public void close() {
+            pool.shutdownNow();
+            queue.clear();
+        }
+    }
+}
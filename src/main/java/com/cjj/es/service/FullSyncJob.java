@@ -0,0 +1,164 @@
+package com.cjj.es.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 全量同步任务
+ * 记录一次后台全量同步的状态与进度（已读取、已写入、失败数），由执行线程更新、查询接口读取；
+ * 取消只设置标记，由同步循环在批次之间检查后停止
+ */
+public class FullSyncJob {
+
+    /**
+     * 任务状态
+     */
+    public enum State {
+        RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private final String id;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private volatile long endTime;
+
+    private volatile State state = State.RUNNING;
+
+    /**
+     * 开始时统计的文章总数，用于计算进度和预计剩余时间，未知时为-1
+     */
+    private volatile long estimatedTotal = -1;
+
+    private volatile long rowsRead;
+
+    private volatile long indexed;
+
+    private volatile long failed;
+
+    private volatile boolean cancelRequested;
+
+    // 是否从上次中断的检查点继续
+    private final boolean resume;
+
+    // 是否重建到新版本索引，否则在别名指向的索引上原地同步并跳过内容未变的文档
+    private final boolean rebuild;
+
+    private volatile String message;
+
+    // 任务结束时完成，值为同步结果
+    private final CompletableFuture<Map<String, Object>> completion = new CompletableFuture<>();
+
+    public FullSyncJob(String id, boolean resume, boolean rebuild) {
+        this.id = id;
+        this.resume = resume;
+        this.rebuild = rebuild;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public boolean isRebuild() {
+        return rebuild;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setEstimatedTotal(long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    /**
+     * 更新进度
+     * @param rowsRead 已从数据库读取的文章数
+     * @param indexed ES已确认写入的文档数
+     * @param failed 写入失败的文档数
+     */
+    public void updateProgress(long rowsRead, long indexed, long failed) {
+        this.rowsRead = rowsRead;
+        this.indexed = indexed;
+        this.failed = failed;
+    }
+
+    /**
+     * 请求取消，任务在当前批次写入完成后停止
+     * @return 任务仍在执行时返回true
+     */
+    public boolean requestCancel() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * 以同步结果结束任务
+     */
+    void complete(Map<String, Object> result) {
+        Object success = result.get("success");
+        if (Boolean.TRUE.equals(success)) {
+            state = State.SUCCEEDED;
+        } else {
+            state = Boolean.TRUE.equals(result.get("cancelled")) ? State.CANCELLED : State.FAILED;
+        }
+        message = (String) result.get("message");
+        endTime = System.currentTimeMillis();
+        completion.complete(result);
+    }
+
+    /**
+     * 任务结束时完成的Future，值为同步结果
+     */
+    public CompletableFuture<Map<String, Object>> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * 当前状态与进度
+     * 速率按已读取文章数计算，预计剩余时间仅在已知总数且速率大于0时给出
+     */
+    public Map<String, Object> toMap() {
+        long now = endTime > 0 ? endTime : System.currentTimeMillis();
+        long elapsed = Math.max(1, now - startTime);
+        long read = rowsRead;
+        long total = estimatedTotal;
+        long docsPerSecond = read * 1000L / elapsed;
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("state", state.name());
+        map.put("resume", resume);
+        map.put("rebuild", rebuild);
+        map.put("startTime", startTime);
+        map.put("elapsedMillis", elapsed);
+        map.put("estimatedTotal", total);
+        map.put("rowsRead", read);
+        map.put("indexed", indexed);
+        map.put("failed", failed);
+        map.put("docsPerSecond", docsPerSecond);
+        if (total > 0) {
+            map.put("percent", Math.min(100.0, read * 100.0 / total));
+        }
+        if (state == State.RUNNING && total > 0 && docsPerSecond > 0) {
+            map.put("etaSeconds", Math.max(0, total - read) / docsPerSecond);
+        }
+        map.put("cancelRequested", cancelRequested);
+        if (message != null) {
+            map.put("message", message);
+        }
+        return map;
+    }
+}
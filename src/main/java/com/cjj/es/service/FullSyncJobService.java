@@ -0,0 +1,166 @@
+package com.cjj.es.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 全量同步任务管理
+ * 全量同步在专用后台线程中执行，调用方立即拿到任务ID，通过任务ID查询进度或取消；
+ * 同一时间只允许一个全量同步执行，重复提交返回正在执行的任务
+ */
+@Service
+public class FullSyncJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(FullSyncJobService.class);
+
+    @Autowired
+    private ESService esService;
+
+    @Autowired
+    private SyncExecutors syncExecutors;
+
+    // 保留的历史任务数量（含正在执行的任务）
+    @Value("${es.sync.full.retained-jobs:20}")
+    private int retainedJobs;
+
+    private ExecutorService executor;
+
+    // 正在执行的任务，为空表示空闲
+    private final AtomicReference<FullSyncJob> runningJob = new AtomicReference<>();
+
+    // 最近的任务，按提交顺序
+    private final Map<String, FullSyncJob> jobs = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // 同一时间只有一个任务执行，由runningJob保证
+        executor = syncExecutors.newExecutor("es-full-sync-", 1);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 中断正在执行的同步，已保存检查点的版本索引保留，下次提交时从检查点继续
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交全量同步任务，存在上次中断留下的检查点时从检查点继续
+     * @return 新任务；已有任务在执行时返回null
+     */
+    public FullSyncJob trySubmit() {
+        return trySubmit(true, false);
+    }
+
+    /**
+     * 提交全量同步任务
+     * @param resume 是否从上次中断的检查点继续，false时丢弃检查点从头同步
+     * @param rebuild 是否重建到新版本索引（映射变更后使用），否则原地同步
+     * @return 新任务；已有任务在执行时返回null
+     */
+    public FullSyncJob trySubmit(boolean resume, boolean rebuild) {
+        FullSyncJob job = new FullSyncJob(UUID.randomUUID().toString(), resume, rebuild);
+        if (!runningJob.compareAndSet(null, job)) {
+            return null;
+        }
+        remember(job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            // 执行器已关闭
+            runningJob.set(null);
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", false);
+            result.put("message", "全量同步任务提交失败: " + e.getMessage());
+            job.complete(result);
+            throw e;
+        }
+        log.info("全量同步任务已提交，任务ID: {}", job.getId());
+        return job;
+    }
+
+    private void run(FullSyncJob job) {
+        Map<String, Object> result;
+        try {
+            result = esService.fullSyncToES(job);
+        } catch (Exception e) {
+            result = new HashMap<>();
+            result.put("success", false);
+            result.put("message", "全量同步异常: " + e.getMessage());
+            log.error("全量同步任务异常，任务ID: {}", job.getId(), e);
+        } finally {
+            runningJob.set(null);
+        }
+        job.complete(result);
+        log.info("全量同步任务结束，任务ID: {}，状态: {}", job.getId(), job.getState());
+    }
+
+    /**
+     * 正在执行的任务，空闲时返回null
+     */
+    public FullSyncJob getRunningJob() {
+        return runningJob.get();
+    }
+
+    /**
+     * 按ID查询任务，任务不存在或已被淘汰时返回null
+     */
+    public FullSyncJob getJob(String jobId) {
+        synchronized (jobs) {
+            return jobs.get(jobId);
+        }
+    }
+
+    /**
+     * 最近的任务，按提交时间倒序
+     */
+    public List<FullSyncJob> listJobs() {
+        List<FullSyncJob> list;
+        synchronized (jobs) {
+            list = new ArrayList<>(jobs.values());
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    /**
+     * 取消任务
+     * @return 任务存在且仍在执行时返回true
+     */
+    public boolean cancel(String jobId) {
+        FullSyncJob job = getJob(jobId);
+        if (job == null || !job.requestCancel()) {
+            return false;
+        }
+        log.info("已请求取消全量同步任务，任务ID: {}", jobId);
+        return true;
+    }
+
+    private void remember(FullSyncJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            Iterator<FullSyncJob> iterator = jobs.values().iterator();
+            while (jobs.size() > retainedJobs && iterator.hasNext()) {
+                FullSyncJob oldest = iterator.next();
+                if (oldest.getState() != FullSyncJob.State.RUNNING) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
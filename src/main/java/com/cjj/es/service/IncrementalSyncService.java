@@ -0,0 +1,164 @@
+package com.cjj.es.service;
+
+import com.cjj.es.entity.Article;
+import com.cjj.es.mapper.ArticleMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 增量同步服务
+ * 按(update_time, aid)高水位只读取上次同步之后变更的文章，软删除的文章同步为ES删除操作；
+ * 水位在每批写入ES确认后持久化，失败时下次从上一个已确认的水位继续
+ */
+@Service
+public class IncrementalSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalSyncService.class);
+
+    // 水位状态名称
+    private static final String WATERMARK_STATE = "incremental-watermark";
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private ESService esService;
+
+    @Autowired
+    private BulkIndexService bulkIndexService;
+
+    @Autowired
+    private SyncStateStore syncStateStore;
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    // 是否启用定时增量同步
+    @Value("${es.sync.incremental.enabled:false}")
+    private boolean enabled;
+
+    // 每批读取的变更文章数量
+    @Value("${es.sync.incremental.batch-size:1000}")
+    private int batchSize;
+
+    // 只读取早于当前时间该毫秒数的变更，避免跳过提交较晚的事务
+    @Value("${es.sync.incremental.safety-lag-ms:5000}")
+    private long safetyLagMillis;
+
+    // 同一时间只允许一个增量同步执行（定时任务与手动触发互斥）
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    /**
+     * 定时增量同步
+     */
+    @Scheduled(fixedDelayString = "${es.sync.incremental.interval-ms:60000}")
+    public void scheduledSync() {
+        if (enabled) {
+            incrementalSyncToES();
+        }
+    }
+
+    /**
+     * 执行一次增量同步
+     * @return 操作结果信息
+     */
+    public Map<String, Object> incrementalSyncToES() {
+        Map<String, Object> result = new HashMap<>();
+        if (!runLock.tryLock()) {
+            result.put("success", false);
+            result.put("message", "增量同步正在执行中");
+            return result;
+        }
+
+        try {
+            Properties watermark = syncStateStore.load(WATERMARK_STATE);
+            long updateTime = Long.parseLong(watermark.getProperty("updateTime", "0"));
+            long aid = Long.parseLong(watermark.getProperty("aid", "0"));
+            long upperTime = System.currentTimeMillis() - safetyLagMillis;
+
+            int totalCount = 0;
+            int successCount = 0;
+            int deletedCount = 0;
+
+            while (true) {
+                long sinceTime = updateTime;
+                long sinceAid = aid;
+                List<Article> batch = syncMetrics.timeDbRead("changed_since",
+                        () -> articleMapper.selectChangedSince(sinceTime, sinceAid, upperTime, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                BulkIndexService.BulkSession session = bulkIndexService.openSession();
+                esService.addToBulkSession(session, batch);
+                BulkResult bulkResult = session.finish();
+                if (bulkResult.getRequestFailures() > 0) {
+                    // 不推进水位，下次从当前水位重试
+                    throw new IllegalStateException("增量同步写入ES失败，水位保持在 updateTime=" + updateTime +
+                            ", aid=" + aid, bulkResult.getLastError());
+                }
+
+                // ES确认后推进并持久化水位
+                Article last = batch.get(batch.size() - 1);
+                updateTime = last.getUpdateTime();
+                aid = last.getAid();
+                saveWatermark(updateTime, aid);
+
+                totalCount += batch.size();
+                successCount += bulkResult.getSuccessCount();
+                for (Article article : batch) {
+                    if (Integer.valueOf(1).equals(article.getDeleted())) {
+                        deletedCount++;
+                    }
+                }
+
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+
+            result.put("success", true);
+            result.put("message", totalCount == 0 ? "没有需要同步的变更" : "增量同步完成");
+            result.put("totalCount", totalCount);
+            result.put("successCount", successCount);
+            result.put("deletedCount", deletedCount);
+            result.put("watermarkUpdateTime", updateTime);
+            result.put("watermarkAid", aid);
+
+            if (totalCount > 0) {
+                log.info("增量同步ES完成，变更文章数: {}，成功写入: {}，删除: {}，水位: {}/{}",
+                        totalCount, successCount, deletedCount, updateTime, aid);
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.put("success", false);
+            result.put("message", "增量同步被中断");
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "增量同步失败: " + e.getMessage());
+            log.error("增量同步ES失败: {}", e.getMessage());
+        } finally {
+            runLock.unlock();
+        }
+
+        return result;
+    }
+
+    private void saveWatermark(long updateTime, long aid) {
+        Properties watermark = new Properties();
+        watermark.setProperty("updateTime", String.valueOf(updateTime));
+        watermark.setProperty("aid", String.valueOf(aid));
+        syncStateStore.save(WATERMARK_STATE, watermark);
+    }
+}
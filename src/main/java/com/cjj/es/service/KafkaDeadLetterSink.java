@@ -0,0 +1,85 @@
+package com.cjj.es.service;
+
+import com.cjj.es.config.KafkaConfig;
+import com.cjj.es.entity.SyncEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 死信主题实现
+ * 永久失败的条目以只含该aid的ID消息写入es_sync_dlq，键为aid，状态码、原因和重试次数放在消息头中；
+ * 死信可由DeadLetterReplayService重放回es_sync_topic，按数据库当前数据重新写入ES。
+ * 发送在独立线程中进行，不阻塞ES客户端的响应回调；发送失败时交给LoggingDeadLetterSink记录
+ */
+@Primary
+@Component
+public class KafkaDeadLetterSink implements DeadLetterSink {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaDeadLetterSink.class);
+
+    @Autowired
+    private KafkaTemplate<String, SyncEvent> kafkaTemplate;
+
+    @Autowired
+    private LoggingDeadLetterSink fallback;
+
+    @Autowired
+    private SyncExecutors syncExecutors;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = syncExecutors.newExecutor("es-dead-letter-", 1);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void accept(BulkItem item, int status, String reason) {
+        try {
+            executor.execute(() -> send(item, status, reason));
+        } catch (RejectedExecutionException e) {
+            // 应用关闭中
+            fallback.accept(item, status, reason);
+        }
+    }
+
+    private void send(BulkItem item, int status, String reason) {
+        try {
+            long aid = Long.parseLong(item.getId());
+            ProducerRecord<String, SyncEvent> record = new ProducerRecord<>(KafkaConfig.DEAD_LETTER_TOPIC,
+                    item.getId(), SyncEvent.ofIds(ArticleIndexManager.ALIAS, new long[]{aid}));
+            record.headers()
+                    .add("status", String.valueOf(status).getBytes(StandardCharsets.UTF_8))
+                    .add("attempts", String.valueOf(item.getAttempts()).getBytes(StandardCharsets.UTF_8))
+                    .add("index", item.getIndex().getBytes(StandardCharsets.UTF_8))
+                    .add("reason", String.valueOf(reason).getBytes(StandardCharsets.UTF_8));
+            kafkaTemplate.send(record).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("死信写入Kafka失败 ID: {}，错误: {}", item.getId(), ex.getMessage());
+                    fallback.accept(item, status, reason);
+                } else {
+                    log.warn("文档写入永久失败，已写入死信主题 ID: {}，状态码: {}，原因: {}", item.getId(), status, reason);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("死信写入Kafka失败 ID: {}，错误: {}", item.getId(), e.getMessage());
+            fallback.accept(item, status, reason);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.cjj.es.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志死信处理实现
+ * 记录失败条目的文档ID、状态码和原因，并统计死信数量；
+ * 作为KafkaDeadLetterSink写入死信主题失败时的兜底，这部分死信只能按日志中的ID手动重新同步
+ */
+@Component
+public class LoggingDeadLetterSink implements DeadLetterSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingDeadLetterSink.class);
+
+    private final AtomicLong deadLetterCount = new AtomicLong();
+
+    @Override
+    public void accept(BulkItem item, int status, String reason) {
+        deadLetterCount.incrementAndGet();
+        log.error("文档写入永久失败，已转入死信 ID: {}，状态码: {}，重试次数: {}，原因: {}",
+                item.getId(), status, item.getAttempts(), reason);
+    }
+
+    public long getDeadLetterCount() {
+        return deadLetterCount.get();
+    }
+}
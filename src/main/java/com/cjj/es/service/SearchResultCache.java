@@ -0,0 +1,145 @@
+package com.cjj.es.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 检索结果缓存
+ * 以Caffeine（W-TinyLFU淘汰）缓存检索结果，按结果预估字节数限制总大小；
+ * 缓存键为 索引代数 + 规范化的检索参数。别名指向的索引有写入得到确认、或别名切换时索引代数加一，
+ * 旧代数的条目不再被命中并立即清空，检索期间代数变化的结果不缓存。
+ * 写入确认到ES刷新可见之间（refresh-window-ms）的检索结果不缓存，避免缓存刷新前的旧结果；
+ * 本进程之外的写入无法感知，由expire-after-write兜底
+ */
+@Component
+public class SearchResultCache {
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    // 是否启用检索结果缓存
+    @Value("${es.search.cache.enabled:true}")
+    private boolean enabled;
+
+    // 缓存结果的总预估字节数上限
+    @Value("${es.search.cache.max-weight-bytes:67108864}")
+    private long maxWeightBytes;
+
+    // 条目写入后的最长存活时间
+    @Value("${es.search.cache.expire-after-write-ms:60000}")
+    private long expireAfterWriteMillis;
+
+    // 写入确认后等待ES刷新可见的时间，应不小于es.index.refresh-interval
+    @Value("${es.search.cache.refresh-window-ms:1000}")
+    private long refreshWindowMillis;
+
+    // 索引代数，写入或别名切换时加一
+    private final AtomicLong generation = new AtomicLong();
+
+    // 最近一次写入确认的时间（纳秒）
+    private volatile long lastWriteNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    private Cache<String, Map<String, Object>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String key, Map<String, Object> value) -> weigh(key, value))
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMillis))
+                .recordStats()
+                .build();
+        syncMetrics.monitorCache("es.search.cache", cache);
+        syncMetrics.gauge("es.search.cache.hit.ratio", "检索结果缓存命中率", cache, c -> c.stats().hitRate());
+        syncMetrics.gauge("es.search.cache.generation", "检索结果缓存的索引代数", generation);
+    }
+
+    /**
+     * 读取缓存的检索结果，未命中时执行检索并缓存成功的结果
+     * @param key 规范化的检索参数
+     * @param search 执行检索，返回结果中success为true时才缓存
+     * @return 检索结果
+     */
+    public Map<String, Object> get(String key, Supplier<Map<String, Object>> search) {
+        if (!enabled) {
+            return search.get();
+        }
+        // 先取代数再检索，检索期间发生写入时结果不缓存
+        long startNanos = System.nanoTime();
+        long startGeneration = generation.get();
+        String cacheKey = startGeneration + "|" + key;
+        Map<String, Object> cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Object> result = search.get();
+        if (Boolean.TRUE.equals(result.get("success"))
+                && generation.get() == startGeneration
+                && startNanos - lastWriteNanos > refreshWindowMillis * 1_000_000L) {
+            cache.put(cacheKey, Collections.unmodifiableMap(result));
+        }
+        return result;
+    }
+
+    /**
+     * 别名指向的索引有写入得到确认时调用，使已缓存的结果失效
+     */
+    public void onIndexWritten() {
+        lastWriteNanos = System.nanoTime();
+        invalidateAll();
+    }
+
+    /**
+     * 别名切换后调用
+     */
+    public void onAliasSwapped() {
+        invalidateAll();
+    }
+
+    private void invalidateAll() {
+        generation.incrementAndGet();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 预估检索结果占用的字节数：字符串按每字符2字节，其余值按固定开销
+     */
+    static int weigh(String key, Map<String, Object> value) {
+        long bytes = 64 + 2L * key.length() + weighValue(value);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long weighValue(Object value) {
+        if (value instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = 48;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += 32 + weighValue(entry.getKey()) + weighValue(entry.getValue());
+            }
+            return bytes;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = 40;
+            for (Object element : collection) {
+                bytes += 8 + weighValue(element);
+            }
+            return bytes;
+        }
+        return 16;
+    }
+}
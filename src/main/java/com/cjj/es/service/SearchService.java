@@ -0,0 +1,317 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.TotalHits;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import com.cjj.es.entity.ArticleDocument;
+import com.cjj.es.entity.ArticleSearchRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 文章检索服务
+ * 基于article_index别名构建检索请求，控制查询形态以保证延迟：
+ * 关键词用ik_smart分析后在title/content上multi_match，过滤条件放在filter上下文中（不算分、可缓存），
+ * 翻页使用search_after游标代替深度from/size，总数统计设上限，_source不返回正文，正文只返回高亮片段
+ */
+@Service
+public class SearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    // 返回的_source字段，正文content只通过高亮片段返回
+    private static final String[] SOURCE_INCLUDES = {
+            ArticleDocument.AID, ArticleDocument.TITLE, ArticleDocument.CATEGORY,
+            ArticleDocument.CREATE_TIME, ArticleDocument.UPDATE_TIME
+    };
+
+    // 排序方式
+    private static final String SORT_RELEVANCE = "relevance";
+
+    @Autowired
+    private ElasticsearchClient elasticsearchClient;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    // 默认每页数量
+    @Value("${es.search.default-size:10}")
+    private int defaultSize;
+
+    // 每页数量上限
+    @Value("${es.search.max-size:100}")
+    private int maxSize;
+
+    // 精确统计命中总数的上限，超过后只返回下限
+    @Value("${es.search.track-total-hits:1000}")
+    private int trackTotalHits;
+
+    // 标题字段权重
+    @Value("${es.search.title-boost:3}")
+    private float titleBoost;
+
+    // 高亮片段长度（字符数）
+    @Value("${es.search.fragment-size:100}")
+    private int fragmentSize;
+
+    // 正文高亮片段数量
+    @Value("${es.search.fragments:2}")
+    private int fragments;
+
+    // 单次检索的服务端超时
+    @Value("${es.search.timeout:2s}")
+    private String timeout;
+
+    /**
+     * 检索文章
+     * 相同检索参数的结果由SearchResultCache缓存，索引有写入时失效
+     * @param params 检索参数
+     * @return 检索结果：命中列表、总数、下一页游标
+     */
+    public Map<String, Object> search(ArticleSearchRequest params) {
+        SearchRequest request;
+        try {
+            request = buildRequest(params);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", false);
+            result.put("message", "检索参数错误: " + e.getMessage());
+            return result;
+        }
+        return searchResultCache.get(cacheKey(params), () -> execute(request));
+    }
+
+    /**
+     * 执行检索请求
+     */
+    private Map<String, Object> execute(SearchRequest request) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            @SuppressWarnings("rawtypes")
+            SearchResponse<Map> response = elasticsearchClient.search(request, Map.class);
+
+            List<Map<String, Object>> hits = new ArrayList<>();
+            List<FieldValue> lastSort = null;
+            for (Hit<Map> hit : response.hits().hits()) {
+                hits.add(toResultItem(hit));
+                lastSort = hit.sort();
+            }
+
+            int size = request.size();
+            TotalHits total = response.hits().total();
+            result.put("success", true);
+            result.put("took", response.took());
+            result.put("total", total == null ? 0 : total.value());
+            // gte表示命中数超过统计上限，total为下限
+            result.put("totalRelation", total == null || total.relation() == TotalHitsRelation.Eq ? "eq" : "gte");
+            result.put("hits", hits);
+            // 返回满页时才可能有下一页
+            result.put("nextCursor", hits.size() == size && lastSort != null ? encodeCursor(lastSort) : null);
+
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "检索失败: " + e.getMessage());
+            log.error("检索文章失败: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 构建检索请求
+     */
+    SearchRequest buildRequest(ArticleSearchRequest params) {
+        int size = params.getSize() == null ? defaultSize : params.getSize();
+        if (size <= 0 || size > maxSize) {
+            throw new IllegalArgumentException("size应在1到" + maxSize + "之间");
+        }
+
+        String sort = params.getSort() == null || params.getSort().isBlank() ? SORT_RELEVANCE : params.getSort();
+        SortOrder order = "asc".equalsIgnoreCase(params.getOrder()) ? SortOrder.Asc : SortOrder.Desc;
+        List<SortOptions> sortOptions = new ArrayList<>();
+        switch (sort) {
+            case SORT_RELEVANCE -> sortOptions.add(SortOptions.of(s -> s.score(sc -> sc.order(SortOrder.Desc))));
+            case ArticleDocument.CREATE_TIME, ArticleDocument.UPDATE_TIME ->
+                    sortOptions.add(SortOptions.of(s -> s.field(f -> f.field(sort).order(order))));
+            default -> throw new IllegalArgumentException("不支持的排序方式: " + sort);
+        }
+        // aid作为唯一的次级排序，保证search_after翻页稳定
+        sortOptions.add(SortOptions.of(s -> s.field(f -> f.field(ArticleDocument.AID).order(SortOrder.Asc))));
+
+        boolean hasKeyword = params.getQ() != null && !params.getQ().isBlank();
+
+        return SearchRequest.of(s -> {
+            s.index(ArticleIndexManager.ALIAS)
+                    .query(buildQuery(params))
+                    .size(size)
+                    .sort(sortOptions)
+                    .trackTotalHits(t -> t.count(trackTotalHits))
+                    .timeout(timeout)
+                    .source(src -> src.filter(f -> f.includes(List.of(SOURCE_INCLUDES))));
+
+            if (params.getCursor() != null && !params.getCursor().isBlank()) {
+                s.searchAfter(decodeCursor(params.getCursor()));
+            }
+
+            if (hasKeyword) {
+                s.highlight(h -> h
+                        .preTags("<em>")
+                        .postTags("</em>")
+                        .fields(ArticleDocument.TITLE, f -> f.numberOfFragments(0))
+                        .fields(ArticleDocument.CONTENT, f -> f
+                                .fragmentSize(fragmentSize)
+                                .numberOfFragments(fragments)
+                                .noMatchSize(fragmentSize))
+                );
+            }
+            return s;
+        });
+    }
+
+    /**
+     * 规范化的检索参数，作为结果缓存键
+     * 关键词去掉首尾空白、合并连续空白并转小写（IK分词对英文不区分大小写），
+     * 省略的参数取默认值，相关度排序忽略排序方向，等价的请求得到相同的键
+     */
+    String cacheKey(ArticleSearchRequest params) {
+        String keyword = params.getQ() == null ? "" : params.getQ().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        String sort = params.getSort() == null || params.getSort().isBlank() ? SORT_RELEVANCE : params.getSort();
+        String order = SORT_RELEVANCE.equals(sort) ? "desc" : "asc".equalsIgnoreCase(params.getOrder()) ? "asc" : "desc";
+        int size = params.getSize() == null ? defaultSize : params.getSize();
+        return "q=" + keyword
+                + "&category=" + params.getCategory()
+                + "&startTime=" + params.getStartTime()
+                + "&endTime=" + params.getEndTime()
+                + "&sort=" + sort
+                + "&order=" + order
+                + "&size=" + size
+                + "&cursor=" + (params.getCursor() == null || params.getCursor().isBlank() ? "" : params.getCursor());
+    }
+
+    /**
+     * 构建查询条件
+     * 关键词参与算分，分类和时间范围放在filter中
+     */
+    private Query buildQuery(ArticleSearchRequest params) {
+        BoolQuery.Builder bool = new BoolQuery.Builder();
+
+        if (params.getQ() != null && !params.getQ().isBlank()) {
+            String keyword = params.getQ().trim();
+            bool.must(m -> m.multiMatch(mm -> mm
+                    .query(keyword)
+                    .fields(ArticleDocument.TITLE + "^" + titleBoost, ArticleDocument.CONTENT)
+                    .analyzer(ArticleIndexTemplateManager.SEARCH_ANALYZER)
+                    .type(TextQueryType.BestFields)
+            ));
+        }
+
+        if (params.getCategory() != null) {
+            bool.filter(f -> f.term(t -> t.field(ArticleDocument.CATEGORY).value(params.getCategory())));
+        }
+
+        if (params.getStartTime() != null || params.getEndTime() != null) {
+            bool.filter(f -> f.range(r -> r.date(d -> {
+                d.field(ArticleDocument.CREATE_TIME).format("epoch_millis");
+                if (params.getStartTime() != null) {
+                    d.gte(String.valueOf(params.getStartTime()));
+                }
+                if (params.getEndTime() != null) {
+                    d.lte(String.valueOf(params.getEndTime()));
+                }
+                return d;
+            })));
+        }
+
+        return Query.of(q -> q.bool(bool.build()));
+    }
+
+    /**
+     * 将命中文档转换为返回结果
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Map<String, Object> toResultItem(Hit<Map> hit) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        if (hit.source() != null) {
+            item.putAll(hit.source());
+        }
+        item.put("score", hit.score());
+        if (!hit.highlight().isEmpty()) {
+            item.put("highlight", hit.highlight());
+        }
+        return item;
+    }
+
+    /**
+     * 将最后一条命中的排序值编码为翻页游标
+     * 每个值带类型前缀：d为浮点（相关度分数）、l为整数（时间、aid）、s为字符串
+     */
+    static String encodeCursor(List<FieldValue> sortValues) {
+        StringBuilder sb = new StringBuilder();
+        for (FieldValue value : sortValues) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            if (value.isDouble()) {
+                sb.append('d').append(value.doubleValue());
+            } else if (value.isLong()) {
+                sb.append('l').append(value.longValue());
+            } else if (value.isString()) {
+                sb.append('s').append(value.stringValue());
+            } else {
+                throw new IllegalArgumentException("不支持的排序值类型: " + value._kind());
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析翻页游标
+     */
+    static List<FieldValue> decodeCursor(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的翻页游标");
+        }
+
+        List<FieldValue> values = new ArrayList<>();
+        for (String part : decoded.split(",")) {
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("无效的翻页游标");
+            }
+            String raw = part.substring(1);
+            try {
+                switch (part.charAt(0)) {
+                    case 'd' -> values.add(FieldValue.of(Double.parseDouble(raw)));
+                    case 'l' -> values.add(FieldValue.of(Long.parseLong(raw)));
+                    case 's' -> values.add(FieldValue.of(raw));
+                    default -> throw new IllegalArgumentException("无效的翻页游标");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的翻页游标");
+            }
+        }
+        return values;
+    }
+}
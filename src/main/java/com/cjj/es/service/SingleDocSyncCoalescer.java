@@ -0,0 +1,214 @@
+package com.cjj.es.service;
+
+import com.cjj.es.entity.Article;
+import com.cjj.es.mapper.ArticleMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单文档同步合并器
+ * 将高频的单aid同步请求缓冲几毫秒或攒满N条后合并处理：同一批内重复的aid只处理一次，
+ * 一次IN查询回查数据库、一个Bulk请求写入ES，再按条目结果分别完成各调用方的Future；
+ * 以几毫秒的延迟换取数据库查询数和ES请求数的数量级下降
+ */
+@Service
+public class SingleDocSyncCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleDocSyncCoalescer.class);
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private ESService esService;
+
+    @Autowired
+    private BulkIndexService bulkIndexService;
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    @Autowired
+    private SyncExecutors syncExecutors;
+
+    // 第一条请求到达后最多等待的毫秒数
+    @Value("${es.sync.coalesce.linger-ms:5}")
+    private long lingerMillis;
+
+    // 攒满该数量立即处理
+    @Value("${es.sync.coalesce.max-batch:500}")
+    private int maxBatch;
+
+    // 同时处理的批次数
+    @Value("${es.sync.coalesce.flush-threads:2}")
+    private int flushThreads;
+
+    // 等待处理的aid上限，超过后新请求直接失败
+    @Value("${es.sync.coalesce.max-pending:10000}")
+    private int maxPending;
+
+    // 回查数据库时每次IN查询的文章数量
+    @Value("${es.sync.hydrate-batch-size:500}")
+    private int hydrateBatchSize;
+
+    // 到期触发处理的定时器，只负责提交，不执行阻塞操作
+    private ScheduledThreadPoolExecutor timer;
+
+    // 执行批次处理（数据库回查、ES写入）
+    private ExecutorService executor;
+
+    // 同时处理的批次，许可用尽时新请求继续攒入缓冲，下一批更大
+    private Semaphore flushPermits;
+
+    private final Object lock = new Object();
+
+    // 当前缓冲批次：aid -> 该aid所有调用方共用的Future
+    private Map<Long, CompletableFuture<Boolean>> buffer = new LinkedHashMap<>();
+
+    // 已提交但未完成的aid数（含缓冲中和处理中）
+    private final AtomicInteger pending = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "es-sync-coalescer-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = syncExecutors.newExecutor("es-sync-coalescer-", flushThreads);
+        flushPermits = new Semaphore(flushThreads);
+        syncMetrics.gauge("es.sync.coalesce.pending", "单文档同步合并器中等待处理的aid数", pending);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timer.shutdownNow();
+        flushBuffer();
+        executor.shutdown();
+    }
+
+    /**
+     * 提交单文档同步请求
+     * @param aid 文章ID
+     * @return 写入结果：成功为true，文章不存在或写入失败为false
+     */
+    public CompletableFuture<Boolean> submit(long aid) {
+        boolean flushNow;
+        CompletableFuture<Boolean> future;
+        synchronized (lock) {
+            future = buffer.get(aid);
+            if (future != null) {
+                // 同一批内重复的aid共用结果，回查时读到的已是最新数据
+                return future;
+            }
+            if (pending.get() >= maxPending) {
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("单文档同步排队已满: " + maxPending));
+            }
+            future = new CompletableFuture<>();
+            buffer.put(aid, future);
+            pending.incrementAndGet();
+            flushNow = buffer.size() >= maxBatch;
+            if (buffer.size() == 1 && !flushNow) {
+                // 批次的第一条请求，到期后处理
+                timer.schedule(() -> executor.execute(this::flush), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow) {
+            executor.execute(this::flush);
+        }
+        return future;
+    }
+
+    /**
+     * 取得处理许可后取出当前缓冲批次并处理
+     * 定时任务与攒满触发可能重复调用，缓冲为空时直接返回
+     */
+    private void flush() {
+        try {
+            flushPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            flushBuffer();
+        } finally {
+            flushPermits.release();
+        }
+    }
+
+    private void flushBuffer() {
+        Map<Long, CompletableFuture<Boolean>> batch;
+        synchronized (lock) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            batch = buffer;
+            buffer = new LinkedHashMap<>();
+        }
+        try {
+            process(batch);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("合并同步失败，文档数: {}，错误: {}", batch.size(), e.getMessage());
+            for (CompletableFuture<Boolean> future : batch.values()) {
+                future.completeExceptionally(e);
+            }
+        } finally {
+            pending.addAndGet(-batch.size());
+        }
+    }
+
+    private void process(Map<Long, CompletableFuture<Boolean>> batch) throws IOException, InterruptedException {
+        // 积压时一批可能接近max-pending，按es.sync.hydrate-batch-size分段IN查询
+        List<Long> aids = new ArrayList<>(batch.keySet());
+        List<Article> articles = new ArrayList<>(aids.size());
+        for (int from = 0; from < aids.size(); from += hydrateBatchSize) {
+            List<Long> chunk = aids.subList(from, Math.min(from + hydrateBatchSize, aids.size()));
+            articles.addAll(syncMetrics.timeDbRead("by_aids", () -> articleMapper.selectByAids(chunk)));
+        }
+
+        BulkIndexService.BulkSession session = bulkIndexService.openSession();
+        esService.addToBulkSession(session, articles);
+        // 数据库中已不存在的文章，ES中仍有文档时一并删除
+        esService.addMissingToBulkSession(session, aids, articles);
+        BulkResult bulkResult = session.finish();
+
+        Set<String> failedIds = bulkResult.getFailedIds();
+        int written = 0;
+        for (Article article : articles) {
+            CompletableFuture<Boolean> future = batch.get(article.getAid());
+            boolean success = !failedIds.contains(String.valueOf(article.getAid()));
+            if (future != null && future.complete(success) && success) {
+                written++;
+            }
+        }
+        // 数据库中不存在的文章
+        for (CompletableFuture<Boolean> future : batch.values()) {
+            future.complete(false);
+        }
+        log.debug("合并同步完成，请求: {}，回查到: {}，写入成功: {}", batch.size(), articles.size(), written);
+    }
+}
@@ -0,0 +1,148 @@
+package com.cjj.es.service;
+
+import com.cjj.es.config.KafkaConfig;
+import com.cjj.es.entity.SyncEvent;
+import com.cjj.es.mapper.ArticleMapper;
+import com.cjj.es.util.AidPartitioner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 同步事件发布
+ * 把一次同步切分为多条只携带aid列表或aid区间的小消息发往es_sync_topic，由消费端批量回查数据库后写入ES，
+ * 消息远小于broker的消息大小上限，并可由多个消费者实例按分区分担；
+ * 连续aid-block-size个aid为一块（见AidPartitioner），一条消息只包含同一块内的aid，
+ * 发往该块对应的分区并以块号为消息键，同一篇文章的消息总在同一分区内按发送顺序消费
+ */
+@Service
+public class SyncEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncEventPublisher.class);
+
+    @Autowired
+    private KafkaTemplate<String, SyncEvent> kafkaTemplate;
+
+    @Autowired
+    private ArticleMapper articleMapper;
+
+    @Autowired
+    private SyncMetrics syncMetrics;
+
+    // 每条ID消息包含的文章数量上限，也是区间消息的最大aid跨度
+    @Value("${es.sync.kafka.ids-per-message:500}")
+    private int idsPerMessage;
+
+    // 按aid划分分区时每块的aid数
+    @Value("${es.kafka.topic.aid-block-size:500}")
+    private int aidBlockSize;
+
+    // 等待broker确认的超时
+    @Value("${es.sync.kafka.send-timeout-seconds:30}")
+    private int sendTimeoutSeconds;
+
+    /**
+     * 发布aid列表
+     * 去重并按aid排序后切分为多条ID消息，方法返回时全部消息已得到broker确认
+     * @param aids 文章ID
+     * @return 发送的消息数
+     * @throws IOException 发送失败或等待确认超时时抛出，其中已确认的消息仍会被消费
+     */
+    public int publishIds(long[] aids) throws IOException {
+        long[] sorted = Arrays.stream(aids).distinct().sorted().toArray();
+        int partitions = partitionCount();
+        List<CompletableFuture<SendResult<String, SyncEvent>>> sends = new ArrayList<>();
+        for (int[] run : AidPartitioner.runs(sorted, aidBlockSize, idsPerMessage)) {
+            long[] chunk = Arrays.copyOfRange(sorted, run[0], run[1]);
+            sends.add(send(chunk[0], partitions, SyncEvent.ofIds(ArticleIndexManager.ALIAS, chunk)));
+        }
+        awaitAcks(sends);
+        log.info("aid列表已发送到Kafka，文章数量: {}，消息数: {}", sorted.length, sends.size());
+        return sends.size();
+    }
+
+    /**
+     * 发布aid闭区间
+     * 按aid块和es.sync.kafka.ids-per-message切分为多条区间消息，消费端按区间游标回查数据库，
+     * 软删除的文章从ES删除；方法返回时全部消息已得到broker确认
+     * @param startAid 区间起点（包含）
+     * @param endAid 区间终点（包含）
+     * @return 发送的消息数
+     * @throws IOException 发送失败或等待确认超时时抛出，其中已确认的消息仍会被消费
+     */
+    public int publishRange(long startAid, long endAid) throws IOException {
+        int partitions = partitionCount();
+        List<CompletableFuture<SendResult<String, SyncEvent>>> sends = new ArrayList<>();
+        for (long[] range : AidPartitioner.ranges(startAid, endAid, aidBlockSize, idsPerMessage)) {
+            sends.add(send(range[0], partitions, SyncEvent.ofRange(ArticleIndexManager.ALIAS, range[0], range[1])));
+        }
+        awaitAcks(sends);
+        log.info("aid区间已发送到Kafka，区间: [{}, {}]，消息数: {}", startAid, endAid, sends.size());
+        return sends.size();
+    }
+
+    /**
+     * 将全表按aid区间分发给消费端同步
+     * 消费端写入别名，内容指纹未变的文档跳过；不切换版本索引，映射变更后仍需全量同步重建
+     * @return 发送的消息数，表为空时为0
+     * @throws IOException 发送失败或等待确认超时时抛出
+     */
+    public int publishAll() throws IOException {
+        Long minAid = articleMapper.selectMinAid();
+        Long maxAid = articleMapper.selectMaxAid();
+        if (minAid == null || maxAid == null) {
+            return 0;
+        }
+        return publishRange(minAid, maxAid);
+    }
+
+    /**
+     * 同步主题当前的分区数
+     * 每次发布读取一次，生产者客户端缓存了主题元数据，主题扩容分区后无需重启即按新的分区数发送
+     */
+    private int partitionCount() {
+        return kafkaTemplate.partitionsFor(KafkaConfig.SYNC_TOPIC).size();
+    }
+
+    /**
+     * 将只包含同一aid块的消息发往该块对应的分区，消息键为块号，broker确认时记录发送耗时和消息字节数
+     * @param aid 消息中的任一aid
+     */
+    private CompletableFuture<SendResult<String, SyncEvent>> send(long aid, int partitions, SyncEvent event) {
+        int partition = AidPartitioner.partitionOf(aid, aidBlockSize, partitions);
+        String key = String.valueOf(AidPartitioner.blockOf(aid, aidBlockSize));
+        CompletableFuture<SendResult<String, SyncEvent>> future = kafkaTemplate.send(KafkaConfig.SYNC_TOPIC, partition, key, event);
+        syncMetrics.recordKafkaSend(future);
+        return future;
+    }
+
+    /**
+     * 等待全部消息得到broker确认
+     */
+    private void awaitAcks(List<CompletableFuture<SendResult<String, SyncEvent>>> sends) throws IOException {
+        try {
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(sendTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待Kafka确认被中断");
+        } catch (ExecutionException e) {
+            throw new IOException("Kafka发送失败: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("等待Kafka确认超时（" + sendTimeoutSeconds + "秒）", e);
+        }
+    }
+}
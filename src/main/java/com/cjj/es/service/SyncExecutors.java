@@ -0,0 +1,93 @@
+package com.cjj.es.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 同步链路执行器工厂
+ * spring.threads.virtual.enabled=true且运行在Java 21及以上时，阻塞IO任务（ES、数据库、Kafka调用）
+ * 每个任务一个虚拟线程，阻塞时不占用平台线程；否则为固定数量的平台线程。
+ * 两种模式下并发上限都由调用方的信号量控制，不依赖线程数。
+ * 项目以Java 17编译，虚拟线程通过Spring的VirtualThreadTaskExecutor和方法句柄创建
+ */
+@Component
+public class SyncExecutors {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncExecutors.class);
+
+    @Autowired
+    private Environment environment;
+
+    private boolean virtual;
+
+    @PostConstruct
+    public void init() {
+        virtual = Threading.VIRTUAL.isActive(environment);
+        log.info("同步链路执行模型: {}", virtual ? "虚拟线程" : "平台线程");
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * 新建执行阻塞任务的执行器
+     * @param namePrefix 线程名前缀
+     * @param platformThreads 平台线程模式下的线程数，应与调用方信号量的许可数一致
+     */
+    public ExecutorService newExecutor(String namePrefix, int platformThreads) {
+        return virtual ? newVirtualExecutor(namePrefix) : newPlatformExecutor(namePrefix, platformThreads);
+    }
+
+    /**
+     * 新建供Spring组件（如Kafka监听器容器）使用的执行器，每个任务一个线程
+     * @param namePrefix 线程名前缀
+     */
+    public AsyncTaskExecutor newTaskExecutor(String namePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(namePrefix);
+        executor.setVirtualThreads(virtual);
+        return executor;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的执行器，需要Java 21及以上
+     */
+    public static ExecutorService newVirtualExecutor(String namePrefix) {
+        ThreadFactory factory = new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
+        try {
+            MethodHandle threadPerTask = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+            return (ExecutorService) threadPerTask.invoke(factory);
+        } catch (Throwable e) {
+            throw new UnsupportedOperationException("当前JDK不支持虚拟线程", e);
+        }
+    }
+
+    /**
+     * 固定数量的守护平台线程
+     */
+    public static ExecutorService newPlatformExecutor(String namePrefix, int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, namePrefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,261 @@
+package com.cjj.es.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 同步链路指标
+ * 覆盖 数据库读取 -> Kafka发送 -> Bulk写入ES 各环节的耗时、吞吐与失败，以及端到端新鲜度
+ * （数据库update_time到ES确认写入的时间差），通过Actuator的/actuator/prometheus暴露；
+ * Kafka客户端自身的指标（含消费延迟records-lag-max）由KafkaConfig中的Micrometer监听器注册
+ */
+@Component
+public class SyncMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PoolingNHttpClientConnectionManager esConnectionManager;
+
+    // 同步链路的数据库查询名称，作为es.sync.db.*指标的query标签
+    private static final List<String> DB_QUERIES = List.of("by_aids", "range_after_aid", "full_partition", "changed_since");
+
+    // 各查询的读取耗时与行数指标，启动时注册一次
+    private Map<String, DbReadMeters> dbReadMeters;
+
+    private Timer kafkaSendTimer;
+    private DistributionSummary kafkaMessageBytes;
+    private Counter kafkaSendErrors;
+
+    private DistributionSummary bulkRequestDocs;
+    private DistributionSummary bulkRequestBytes;
+    private Counter bulkRequestRetries;
+
+    private Timer freshnessTimer;
+    private Counter unchangedSkipped;
+
+    @PostConstruct
+    public void init() {
+        kafkaSendTimer = Timer.builder("es.sync.kafka.send")
+                .description("Kafka消息从发送到broker确认的耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        kafkaMessageBytes = DistributionSummary.builder("es.sync.kafka.message.bytes")
+                .description("Kafka消息体序列化后的字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        kafkaSendErrors = Counter.builder("es.sync.kafka.send.errors")
+                .description("Kafka消息发送失败次数")
+                .register(meterRegistry);
+
+        bulkRequestDocs = DistributionSummary.builder("es.bulk.request.docs")
+                .description("单个Bulk请求的文档数")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        bulkRequestBytes = DistributionSummary.builder("es.bulk.request.bytes")
+                .description("单个Bulk请求的预估请求体字节数")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        bulkRequestRetries = Counter.builder("es.bulk.request.retries")
+                .description("Bulk请求因集群过载整体重试的次数")
+                .register(meterRegistry);
+
+        freshnessTimer = Timer.builder("es.sync.freshness")
+                .description("文档从数据库更新到ES确认写入的时间差")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry);
+
+        unchangedSkipped = Counter.builder("es.sync.unchanged.skipped")
+                .description("内容指纹未变、跳过写入的文档数")
+                .register(meterRegistry);
+
+        Map<String, DbReadMeters> dbMeters = new HashMap<>();
+        for (String query : DB_QUERIES) {
+            dbMeters.put(query, new DbReadMeters(
+                    Timer.builder("es.sync.db.read")
+                            .description("同步链路数据库读取耗时")
+                            .tag("query", query)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry),
+                    Counter.builder("es.sync.db.rows")
+                            .description("同步链路从数据库读取的行数")
+                            .tag("query", query)
+                            .register(meterRegistry)));
+        }
+        dbReadMeters = Map.copyOf(dbMeters);
+
+        // ES连接池：租用中、等待连接、空闲与上限
+        Gauge.builder("es.client.pool.leased", esConnectionManager, m -> m.getTotalStats().getLeased())
+                .description("ES连接池租用中的连接数").register(meterRegistry);
+        Gauge.builder("es.client.pool.pending", esConnectionManager, m -> m.getTotalStats().getPending())
+                .description("ES连接池中等待连接的请求数").register(meterRegistry);
+        Gauge.builder("es.client.pool.available", esConnectionManager, m -> m.getTotalStats().getAvailable())
+                .description("ES连接池空闲连接数").register(meterRegistry);
+        Gauge.builder("es.client.pool.max", esConnectionManager, m -> m.getTotalStats().getMax())
+                .description("ES连接池最大连接数").register(meterRegistry);
+    }
+
+    /**
+     * 执行一次数据库读取并记录耗时与读取行数
+     * @param query 查询名称，作为指标标签，须为DB_QUERIES之一
+     * @param reader 读取操作
+     * @return 读取结果
+     */
+    public <T> List<T> timeDbRead(String query, Supplier<List<T>> reader) {
+        DbReadMeters meters = dbReadMeters.get(query);
+        if (meters == null) {
+            throw new IllegalArgumentException("未注册的数据库查询指标: " + query);
+        }
+        long start = System.nanoTime();
+        List<T> rows = reader.get();
+        meters.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meters.rows().increment(rows == null ? 0 : rows.size());
+        return rows;
+    }
+
+    /**
+     * 记录一条Kafka消息的发送耗时和消息体字节数，在broker确认（或失败）时记录
+     * @param future KafkaTemplate.send的返回值
+     */
+    public <V> void recordKafkaSend(CompletableFuture<SendResult<String, V>> future) {
+        long start = System.nanoTime();
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                kafkaSendErrors.increment();
+                return;
+            }
+            kafkaSendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            int valueSize = result.getRecordMetadata().serializedValueSize();
+            if (valueSize >= 0) {
+                kafkaMessageBytes.record(valueSize);
+            }
+        });
+    }
+
+    /**
+     * 记录Bulk请求的规模，在请求发出时调用
+     */
+    public void recordBulkRequestSize(int docs, long bytes) {
+        bulkRequestDocs.record(docs);
+        bulkRequestBytes.record(bytes);
+    }
+
+    /**
+     * 记录Bulk请求从首次发送到完成的耗时（含过载重试）
+     * @param outcome success或failure
+     */
+    public void recordBulkRequest(String outcome, long elapsedNanos) {
+        Timer.builder("es.bulk.request")
+                .description("Bulk请求耗时")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次Bulk请求整体重试
+     */
+    public void recordBulkRetry() {
+        bulkRequestRetries.increment();
+    }
+
+    /**
+     * 记录单条文档写入失败
+     * @param status 条目状态码
+     * @param errorType ES返回的错误类型，如es_rejected_execution_exception、mapper_parsing_exception
+     * @param retried 是否重新入队，否则转入死信
+     */
+    public void recordItemFailure(int status, String errorType, boolean retried) {
+        Counter.builder("es.bulk.item.failures")
+                .description("Bulk单条文档写入失败次数")
+                .tag("status", String.valueOf(status))
+                .tag("type", errorType == null ? "unknown" : errorType)
+                .tag("action", retried ? "retry" : "dead_letter")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录文档端到端新鲜度
+     * @param sourceUpdateTime 数据库update_time（毫秒），不大于0时不记录
+     * @param now ES确认写入的时间（毫秒）
+     */
+    public void recordFreshness(long sourceUpdateTime, long now) {
+        if (sourceUpdateTime > 0 && now >= sourceUpdateTime) {
+            freshnessTimer.record(now - sourceUpdateTime, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 注册一个读取数值对象当前值的仪表
+     */
+    public void gauge(String name, String description, Number number) {
+        Gauge.builder(name, number, Number::doubleValue)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册一个仪表，取值时调用value读取对象的当前状态
+     */
+    public <T> void gauge(String name, String description, T obj, ToDoubleFunction<T> value) {
+        Gauge.builder(name, obj, value)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录因内容未变而跳过写入的文档数
+     */
+    public void recordUnchangedSkipped(int count) {
+        if (count > 0) {
+            unchangedSkipped.increment(count);
+        }
+    }
+
+    /**
+     * 注册Caffeine缓存的命中、未命中、淘汰、大小等指标（cache.*，cache标签为name）
+     */
+    public void monitorCache(String name, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * 注册一个读取单调递增数值对象的计数器
+     */
+    public void functionCounter(String name, String description, Number number) {
+        FunctionCounter.builder(name, number, Number::doubleValue)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 一个数据库查询的读取耗时与行数指标
+     */
+    private record DbReadMeters(Timer timer, Counter rows) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.cjj.es.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * 同步状态持久化存储
+ * 以properties文件保存同步水位等状态，写入时先写临时文件再原子替换，
+ * 进程崩溃或重启后不会读到写了一半的状态
+ */
+@Component
+public class SyncStateStore {
+
+    // 状态文件目录
+    @Value("${es.sync.state-dir:./sync-state}")
+    private String stateDir;
+
+    /**
+     * 读取状态
+     * @param name 状态名称
+     * @return 状态内容，不存在时返回空Properties
+     */
+    public synchronized Properties load(String name) {
+        Properties properties = new Properties();
+        Path file = resolve(name);
+        if (!Files.exists(file)) {
+            return properties;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            return properties;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取同步状态失败: " + file, e);
+        }
+    }
+
+    /**
+     * 原子写入状态
+     * @param name 状态名称
+     * @param properties 状态内容
+     */
+    public synchronized void save(String name, Properties properties) {
+        Path file = resolve(name);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+                properties.store(out, name);
+                // 替换前落盘，机器断电后不会留下空文件
+                out.getFD().sync();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入同步状态失败: " + file, e);
+        }
+    }
+
+    /**
+     * 删除状态
+     * @param name 状态名称
+     */
+    public synchronized void delete(String name) {
+        try {
+            Files.deleteIfExists(resolve(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException("删除同步状态失败: " + name, e);
+        }
+    }
+
+    private Path resolve(String name) {
+        return Paths.get(stateDir, name + ".properties").toAbsolutePath();
+    }
+}
@@ -0,0 +1,78 @@
+package com.cjj.es.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按aid划分Kafka分区
+ * 连续blockSize个aid为一块，各块轮流分配到各分区：同一篇文章的所有同步消息总是进入同一分区，保证按发送顺序消费；
+ * 一条区间/列表消息只包含同一块内的aid，连续aid区间仍可用一条区间消息表示
+ */
+public final class AidPartitioner {
+
+    private AidPartitioner() {
+    }
+
+    /**
+     * aid所在的块
+     */
+    public static long blockOf(long aid, int blockSize) {
+        return Math.floorDiv(aid, (long) blockSize);
+    }
+
+    /**
+     * aid所在的分区
+     * @param aid 文章ID
+     * @param blockSize 每块的aid数
+     * @param partitions 分区数
+     * @return 分区号，0到partitions-1
+     */
+    public static int partitionOf(long aid, int blockSize, int partitions) {
+        return (int) Math.floorMod(blockOf(aid, blockSize), (long) partitions);
+    }
+
+    /**
+     * 将按aid升序排列的aid切分为若干段，每段内的aid属于同一块且不超过maxPerRun条
+     * @param sortedAids 升序排列的aid
+     * @param blockSize 每块的aid数
+     * @param maxPerRun 每段最多的aid数
+     * @return 每段的[起始下标, 结束下标)
+     */
+    public static List<int[]> runs(long[] sortedAids, int blockSize, int maxPerRun) {
+        List<int[]> runs = new ArrayList<>();
+        int start = 0;
+        while (start < sortedAids.length) {
+            long block = blockOf(sortedAids[start], blockSize);
+            int end = start + 1;
+            while (end < sortedAids.length && end - start < maxPerRun && blockOf(sortedAids[end], blockSize) == block) {
+                end++;
+            }
+            runs.add(new int[]{start, end});
+            start = end;
+        }
+        return runs;
+    }
+
+    /**
+     * 将aid闭区间切分为若干子区间，每个子区间属于同一块且跨度不超过maxPerRange个aid
+     * @param startAid 区间起点（包含）
+     * @param endAid 区间终点（包含）
+     * @param blockSize 每块的aid数
+     * @param maxPerRange 每个子区间最多的aid数
+     * @return 每项为[起点, 终点]闭区间，按aid升序
+     */
+    public static List<long[]> ranges(long startAid, long endAid, int blockSize, int maxPerRange) {
+        List<long[]> ranges = new ArrayList<>();
+        long from = startAid;
+        while (from <= endAid) {
+            long blockEnd = (blockOf(from, blockSize) + 1) * blockSize - 1;
+            long to = Math.min(endAid, Math.min(blockEnd, from + maxPerRange - 1));
+            ranges.add(new long[]{from, to});
+            if (to == Long.MAX_VALUE) {
+                break;
+            }
+            from = to + 1;
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,337 @@
+package com.cjj.es.util;
+
+/**
+ * HTML转纯文本
+ * 单次遍历的字符状态机：去除标签，丢弃script/style/注释的内容，解码命名和数字实体，
+ * 同时把连续空白（包括实体解码出的空格）合并为一个空格并去掉首尾空白。
+ * 输入和输出都使用线程复用的字符缓冲区，每次调用只在最后创建一次结果字符串
+ */
+public final class HtmlTextCleaner {
+
+    // 复用缓冲区的最大保留长度，超大正文用完即丢，避免线程长期占用内存
+    private static final int MAX_RETAINED_BUFFER = 1 << 20;
+
+    // 数字实体的最大位数
+    private static final int MAX_NUMERIC_DIGITS = 7;
+
+    // 常见命名实体及其解码结果，按下标一一对应
+    private static final char[][] ENTITY_NAMES = chars(
+            "nbsp", "lt", "gt", "amp", "quot", "apos", "ensp", "emsp", "thinsp",
+            "copy", "reg", "trade", "middot", "bull", "hellip", "ndash", "mdash",
+            "lsquo", "rsquo", "ldquo", "rdquo", "laquo", "raquo", "times", "divide", "yen"
+    );
+    private static final char[] ENTITY_VALUES = {
+            ' ', '<', '>', '&', '"', '\'', ' ', ' ', ' ',
+            '©', '®', '™', '·', '•', '…', '–', '—',
+            '‘', '’', '“', '”', '«', '»', '×', '÷', '¥'
+    };
+
+    // 行内标签：去除后前后文字直接相连；其余标签视为词边界，输出一个空格
+    private static final char[][] INLINE_TAGS = chars(
+            "a", "abbr", "b", "bdi", "bdo", "cite", "code", "em", "font", "i", "kbd", "mark", "q", "s",
+            "samp", "small", "span", "strike", "strong", "sub", "sup", "time", "u", "var", "wbr"
+    );
+
+    // 内容不属于正文的标签及其结束标签前缀
+    private static final char[][] RAW_TEXT_TAGS = chars("script", "style");
+    private static final char[][] RAW_TEXT_CLOSERS = chars("</script", "</style");
+
+    private static final ThreadLocal<char[]> INPUT_BUFFER = ThreadLocal.withInitial(() -> new char[8192]);
+    private static final ThreadLocal<char[]> OUTPUT_BUFFER = ThreadLocal.withInitial(() -> new char[8192]);
+
+    private HtmlTextCleaner() {
+    }
+
+    /**
+     * 将HTML转换为纯文本
+     * @param html HTML内容
+     * @return 纯文本，输入为null或空白时返回空字符串
+     */
+    public static String clean(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+
+        int length = html.length();
+        char[] in = buffer(INPUT_BUFFER, length);
+        // 输出不会比原文长：实体解码结果短于实体本身，一个标签最多替换为一个空格
+        char[] out = buffer(OUTPUT_BUFFER, length);
+        html.getChars(0, length, in, 0);
+
+        int len = 0;
+        // 待输出的空白在遇到下一个可见字符时才写入，从而合并连续空白并去掉首尾空白
+        boolean pendingSpace = false;
+        int i = 0;
+
+        while (i < length) {
+            char c = in[i];
+            int codePoint = c;
+            int next = i + 1;
+
+            if (c == '<') {
+                int end = skipMarkup(in, length, i);
+                if (end > i) {
+                    if (!isInlineTag(in, length, i)) {
+                        pendingSpace = true;
+                    }
+                    i = end;
+                    continue;
+                }
+                // 不构成标签的'<'按普通字符处理，如 "1 < 2"
+            } else if (c == '&') {
+                long entity = decodeEntity(in, length, i);
+                if (entity >= 0) {
+                    codePoint = (int) entity;
+                    next = (int) (entity >>> 32);
+                }
+            }
+
+            if (isSpace(codePoint)) {
+                pendingSpace = true;
+            } else {
+                if (pendingSpace && len > 0) {
+                    out[len++] = ' ';
+                }
+                pendingSpace = false;
+                if (Character.isBmpCodePoint(codePoint)) {
+                    out[len++] = (char) codePoint;
+                } else {
+                    out[len++] = Character.highSurrogate(codePoint);
+                    out[len++] = Character.lowSurrogate(codePoint);
+                }
+            }
+            i = next;
+        }
+
+        return new String(out, 0, len);
+    }
+
+    /**
+     * 跳过从start开始的标签、注释或声明
+     * @return 标签之后的位置；start处不构成标签时返回start
+     */
+    private static int skipMarkup(char[] in, int length, int start) {
+        int i = start + 1;
+        if (i >= length) {
+            return start;
+        }
+
+        char c = in[i];
+        if (c == '!') {
+            if (i + 2 < length && in[i + 1] == '-' && in[i + 2] == '-') {
+                for (int j = i + 3; j + 2 < length; j++) {
+                    if (in[j] == '-' && in[j + 1] == '-' && in[j + 2] == '>') {
+                        return j + 3;
+                    }
+                }
+                return length;
+            }
+            return tagEnd(in, length, i);
+        }
+        if (c == '?') {
+            return tagEnd(in, length, i);
+        }
+
+        boolean closing = c == '/';
+        int nameStart = closing ? i + 1 : i;
+        if (nameStart >= length || !isAsciiLetter(in[nameStart])) {
+            return start;
+        }
+
+        int end = tagEnd(in, length, nameStart);
+        if (!closing) {
+            // script/style的内容整体丢弃，直到对应的结束标签
+            int nameEnd = nameEnd(in, length, nameStart);
+            for (int t = 0; t < RAW_TEXT_TAGS.length; t++) {
+                if (equalsIgnoreCase(in, nameStart, nameEnd, RAW_TEXT_TAGS[t])) {
+                    int close = indexOfIgnoreCase(in, length, RAW_TEXT_CLOSERS[t], end);
+                    return close < 0 ? length : tagEnd(in, length, close + 2);
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * 查找标签结束的'>'，忽略引号内的'>'
+     * @return '>'之后的位置，未闭合时返回文本末尾
+     */
+    private static int tagEnd(char[] in, int length, int from) {
+        char quote = 0;
+        for (int i = from; i < length; i++) {
+            char c = in[i];
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 判断start处的标签是否为行内标签，注释同样不打断前后文字
+     */
+    private static boolean isInlineTag(char[] in, int length, int start) {
+        int nameStart = start + 1;
+        if (in[nameStart] == '!') {
+            return nameStart + 2 < length && in[nameStart + 1] == '-' && in[nameStart + 2] == '-';
+        }
+        if (in[nameStart] == '/') {
+            nameStart++;
+        }
+        int nameEnd = nameEnd(in, length, nameStart);
+        for (char[] tag : INLINE_TAGS) {
+            if (equalsIgnoreCase(in, nameStart, nameEnd, tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int nameEnd(char[] in, int length, int nameStart) {
+        int i = nameStart;
+        while (i < length && (isAsciiLetter(in[i]) || (in[i] >= '0' && in[i] <= '9'))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 比较in[from, to)与小写名称是否相同（忽略ASCII大小写）
+     */
+    private static boolean equalsIgnoreCase(char[] in, int from, int to, char[] lowerName) {
+        if (to - from != lowerName.length) {
+            return false;
+        }
+        for (int k = 0; k < lowerName.length; k++) {
+            if ((in[from + k] | 0x20) != lowerName[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOfIgnoreCase(char[] in, int length, char[] lowerTarget, int from) {
+        int last = length - lowerTarget.length;
+        for (int i = from; i <= last; i++) {
+            if (in[i] == '<' && equalsIgnoreCase(in, i, i + lowerTarget.length, lowerTarget)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解码start处的实体
+     * @return 高32位为实体之后的位置，低32位为解码出的码点；不是可识别的实体时返回-1
+     */
+    private static long decodeEntity(char[] in, int length, int start) {
+        int semicolon = -1;
+        int limit = Math.min(length, start + 2 + MAX_NUMERIC_DIGITS + 1);
+        for (int i = start + 1; i < limit; i++) {
+            char c = in[i];
+            if (c == ';') {
+                semicolon = i;
+                break;
+            }
+            if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '#') {
+                return -1;
+            }
+        }
+        if (semicolon < 0) {
+            return -1;
+        }
+
+        int codePoint = -1;
+        if (in[start + 1] == '#') {
+            codePoint = decodeNumeric(in, start + 2, semicolon);
+        } else {
+            for (int e = 0; e < ENTITY_NAMES.length; e++) {
+                if (equalsExact(in, start + 1, semicolon, ENTITY_NAMES[e])) {
+                    codePoint = ENTITY_VALUES[e];
+                    break;
+                }
+            }
+        }
+        if (codePoint < 0) {
+            return -1;
+        }
+        return ((long) (semicolon + 1) << 32) | codePoint;
+    }
+
+    /**
+     * 解码数字实体（&amp;#十进制; 或 &amp;#x十六进制;），非法码点替换为U+FFFD
+     */
+    private static int decodeNumeric(char[] in, int from, int to) {
+        int radix = 10;
+        if (from < to && (in[from] == 'x' || in[from] == 'X')) {
+            radix = 16;
+            from++;
+        }
+        if (from >= to) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(in[i], radix);
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * radix + digit;
+        }
+        if (value == 0 || value > Character.MAX_CODE_POINT
+                || (value >= Character.MIN_SURROGATE && value <= Character.MAX_SURROGATE)) {
+            return 0xFFFD;
+        }
+        return value;
+    }
+
+    private static boolean equalsExact(char[] in, int from, int to, char[] name) {
+        if (to - from != name.length) {
+            return false;
+        }
+        for (int k = 0; k < name.length; k++) {
+            if (in[from + k] != name[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isSpace(int codePoint) {
+        if (codePoint <= ' ') {
+            return true;
+        }
+        // ASCII可见字符直接返回，其余交给Character判断（含不换行空格、全角空格等）
+        return codePoint >= 0x80 && (codePoint == '\u00A0' || Character.isWhitespace(codePoint));
+    }
+
+    private static char[] buffer(ThreadLocal<char[]> holder, int length) {
+        char[] buffer = holder.get();
+        if (buffer.length < length) {
+            buffer = new char[length];
+            if (length <= MAX_RETAINED_BUFFER) {
+                holder.set(buffer);
+            }
+        }
+        return buffer;
+    }
+
+    private static char[][] chars(String... values) {
+        char[][] result = new char[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].toCharArray();
+        }
+        return result;
+    }
+}
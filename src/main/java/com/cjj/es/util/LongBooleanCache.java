@@ -0,0 +1,104 @@
+package com.cjj.es.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * long键到布尔值的定长缓存
+ * 直接映射：每个键按哈希落在唯一的槽位，冲突时新值覆盖旧值，容量固定不扩容；
+ * 槽位中以 (key << 1) | value 存放在一个long里，读写均为单次原子操作，无锁、无装箱、无对象分配。
+ * 键的取值范围为1到2^62-1；线程安全
+ */
+public class LongBooleanCache {
+
+    // 未缓存
+    public static final int UNKNOWN = -1;
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+
+    private static final long MAX_KEY = (1L << 62) - 1;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    public LongBooleanCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        slots = new AtomicLongArray(size);
+        mask = size - 1;
+    }
+
+    /**
+     * 查询键对应的值
+     * @return TRUE、FALSE，未缓存时返回UNKNOWN
+     */
+    public int get(long key) {
+        checkKey(key);
+        long entry = slots.get(slot(key));
+        if (entry >>> 1 != key) {
+            return UNKNOWN;
+        }
+        return (int) (entry & 1);
+    }
+
+    /**
+     * 写入键值，覆盖槽位中的旧条目
+     */
+    public void put(long key, boolean value) {
+        checkKey(key);
+        slots.set(slot(key), encode(key, value));
+    }
+
+    /**
+     * 读取键所在槽位的当前条目，配合putIfUnchanged使用
+     */
+    public long stamp(long key) {
+        checkKey(key);
+        return slots.get(slot(key));
+    }
+
+    /**
+     * 槽位条目自stamp读取后未被修改时才写入
+     * 用于以远程查询结果填充缓存：查询期间同一槽位有更新的写入时，不用较旧的查询结果覆盖
+     * @return 是否写入
+     */
+    public boolean putIfUnchanged(long key, boolean value, long stamp) {
+        checkKey(key);
+        return slots.compareAndSet(slot(key), stamp, encode(key, value));
+    }
+
+    /**
+     * 移除键，槽位被其他键占用时不处理
+     */
+    public void remove(long key) {
+        checkKey(key);
+        int slot = slot(key);
+        long entry = slots.get(slot);
+        if (entry >>> 1 == key) {
+            slots.compareAndSet(slot, entry, 0L);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0L);
+        }
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static long encode(long key, boolean value) {
+        return (key << 1) | (value ? 1L : 0L);
+    }
+
+    private static void checkKey(long key) {
+        if (key <= 0 || key > MAX_KEY) {
+            throw new IllegalArgumentException("键超出范围: " + key);
+        }
+    }
+}
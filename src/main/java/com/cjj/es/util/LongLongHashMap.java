@@ -0,0 +1,170 @@
+package com.cjj.es.util;
+
+import java.util.Arrays;
+
+/**
+ * long到long的开放寻址哈希表
+ * 键值存放在两个long数组中，线性探测，删除时后移回填不留墓碑；
+ * 每个条目约16字节（按负载因子折算约24字节），没有装箱对象和链表节点，适合百万级aid的常驻映射。
+ * 键0保留为空槽标记，不能作为键；非线程安全
+ */
+public class LongLongHashMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(Math.max(expectedSize, 4)));
+    }
+
+    /**
+     * 查询键对应的值
+     * @return 值，键不存在时返回missingValue
+     */
+    public long get(long key, long missingValue) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                return values[slot];
+            }
+            if (existing == 0) {
+                return missingValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                return true;
+            }
+            if (existing == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 写入键值，键已存在时覆盖
+     */
+    public void put(long key, long value) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                values[slot] = value;
+                return;
+            }
+            if (existing == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > resizeThreshold) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 删除键
+     * @return 键存在时返回true
+     */
+    public boolean remove(long key) {
+        checkKey(key);
+        int slot = slot(key);
+        while (true) {
+            long existing = keys[slot];
+            if (existing == 0) {
+                return false;
+            }
+            if (existing == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // 将后续探测链上的条目回填到空出的槽位，保证查找不会提前遇到空槽
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int ideal = slot(keys[next]);
+            // ideal不在(gap, next]区间内时，条目可以移动到gap
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        // 混合高低位，连续的自增aid也能均匀分布
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = slot(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(expectedSize / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static void checkKey(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("键0保留为空槽标记");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.cjj.es.codec;
+
+import com.cjj.es.entity.Article;
+import com.cjj.es.entity.SyncEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncEventCodecTest {
+
+    @Test
+    void roundTripArticles() {
+        Article full = new Article(1L, "标题", "<p>内容&nbsp;content</p>");
+        full.setCreateTime(1700000000000L);
+        full.setUpdateTime(1700000001000L);
+        full.setCategory(2);
+        full.setDeleted(1);
+        Article sparse = new Article(2L, null, "");
+
+        SyncEvent decoded = SyncEventCodec.decode(SyncEventCodec.encode(
+                SyncEvent.ofArticles("article_index", List.of(full, sparse))));
+
+        assertEquals(SyncEvent.Operation.BULK_INDEX, decoded.getOperation());
+        assertEquals("article_index", decoded.getIndex());
+        assertEquals(2, decoded.getArticles().size());
+        Article first = decoded.getArticles().get(0);
+        assertEquals(1L, first.getAid());
+        assertEquals("标题", first.getTitle());
+        assertEquals("<p>内容&nbsp;content</p>", first.getContent());
+        assertEquals(1700000000000L, first.getCreateTime());
+        assertEquals(1700000001000L, first.getUpdateTime());
+        assertEquals(2, first.getCategory());
+        assertEquals(1, first.getDeleted());
+        Article second = decoded.getArticles().get(1);
+        assertNull(second.getTitle());
+        assertEquals("", second.getContent());
+        assertNull(second.getCategory());
+        assertNull(second.getDeleted());
+    }
+
+    @Test
+    void roundTripIdsAndRange() {
+        long[] aids = {5L, 3L, 1000000L, 1000001L};
+        SyncEvent ids = SyncEventCodec.decode(SyncEventCodec.encode(SyncEvent.ofIds("article_index", aids)));
+        assertArrayEquals(aids, ids.getAids());
+
+        SyncEvent range = SyncEventCodec.decode(SyncEventCodec.encode(
+                SyncEvent.ofRange("article_index", 100L, 599L)));
+        assertEquals(SyncEvent.Operation.BULK_INDEX_RANGE, range.getOperation());
+        assertEquals(100L, range.getStartAid());
+        assertEquals(599L, range.getEndAid());
+    }
+
+    @Test
+    void rejectsForeignPayload() {
+        byte[] json = "{\"operation\":\"bulk_index\"}".getBytes();
+        assertThrows(IllegalArgumentException.class, () -> SyncEventCodec.decode(json));
+        byte[] truncated = SyncEventCodec.encode(SyncEvent.ofRange("article_index", 1L, 2L));
+        assertThrows(IllegalArgumentException.class,
+                () -> SyncEventCodec.decode(Arrays.copyOf(truncated, truncated.length - 1)));
+    }
+
+    @Test
+    void rejectsCorruptCountBeforeAllocating() {
+        // 以空列表编码，再把末尾的数量字段0改为Integer.MAX_VALUE
+        byte[] maxCount = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[] emptyIds = SyncEventCodec.encode(SyncEvent.ofIds("article_index", new long[0]));
+        byte[] corruptIds = withCount(emptyIds, maxCount);
+        assertThrows(IllegalArgumentException.class, () -> SyncEventCodec.decode(corruptIds));
+
+        byte[] emptyArticles = SyncEventCodec.encode(SyncEvent.ofArticles("article_index", List.of()));
+        byte[] corruptArticles = withCount(emptyArticles, maxCount);
+        assertThrows(SerializationException.class,
+                () -> new SyncEventDeserializer().deserialize("es_sync_topic", corruptArticles));
+    }
+
+    private static byte[] withCount(byte[] encodedEmpty, byte[] count) {
+        byte[] bytes = Arrays.copyOf(encodedEmpty, encodedEmpty.length - 1 + count.length);
+        System.arraycopy(count, 0, bytes, encodedEmpty.length - 1, count.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,70 @@
+package com.cjj.es.service;
+
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import com.cjj.es.entity.Article;
+import com.cjj.es.entity.ArticleDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DocumentFingerprintStoreTest {
+
+    private DocumentFingerprintStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new DocumentFingerprintStore();
+        ReflectionTestUtils.setField(store, "syncMetrics", mock(SyncMetrics.class));
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "initialCapacity", 16);
+        store.init();
+    }
+
+    @Test
+    void cancelledRebuildDoesNotSuppressLaterAliasWrites() {
+        // 全量重建写入版本索引后被取消，版本索引被放弃
+        store.stage("article_index_v7");
+        store.onIndexed(index("article_index_v7", 42L, 1234L));
+        store.discard("article_index_v7");
+        assertFalse(store.isUnchanged(42L, 1234L));
+
+        // 之后的增量同步写入别名，内容相同也不能跳过；写入别名得到确认后才记录
+        store.onIndexed(index(ArticleIndexManager.ALIAS, 42L, 1234L));
+        assertTrue(store.isUnchanged(42L, 1234L));
+    }
+
+    @Test
+    void stagedFingerprintsReplaceAliasFingerprintsOnPublish() {
+        store.onIndexed(index(ArticleIndexManager.ALIAS, 1L, 10L));
+        store.stage("article_index_v8");
+        store.onIndexed(index("article_index_v8", 2L, 20L));
+
+        // 切换别名前仍按旧索引的指纹判断
+        assertTrue(store.isUnchanged(1L, 10L));
+        assertFalse(store.isUnchanged(2L, 20L));
+
+        store.publish("article_index_v8");
+        assertFalse(store.isUnchanged(1L, 10L));
+        assertTrue(store.isUnchanged(2L, 20L));
+    }
+
+    @Test
+    void aliasDeleteRemovesFingerprint() {
+        store.onIndexed(index(ArticleIndexManager.ALIAS, 7L, 99L));
+        assertTrue(store.isUnchanged(7L, 99L));
+
+        store.onIndexed(new BulkItem("7",
+                BulkOperation.of(b -> b.delete(d -> d.index(ArticleIndexManager.ALIAS).id("7"))), 128));
+        assertFalse(store.isUnchanged(7L, 99L));
+    }
+
+    private static BulkItem index(String index, long aid, long fingerprint) {
+        String id = String.valueOf(aid);
+        ArticleDocument document = ArticleDocument.from(new Article(aid, "标题", "内容"));
+        return new BulkItem(id, BulkOperation.of(b -> b.index(i -> i.index(index).id(id).document(document))),
+                128, 0L, fingerprint);
+    }
+}
@@ -0,0 +1,132 @@
+package com.cjj.es.service;
+
+import com.cjj.es.api.ArticleSyncApi;
+import com.cjj.es.api.SyncDocsResult;
+import org.apache.dubbo.config.ReferenceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 通过Triple协议调用导出的ArticleSyncApi，不依赖注册中心（dubbo.registry.address=N/A），
+ * ESService与FullSyncJobService以Mock代替，不访问MySQL和ES
+ */
+@SpringBootTest(properties = "es.kafka.admin.timeout-seconds=1")
+class DubboSyncServiceTest {
+
+    private static final int PORT = freePort();
+
+    @MockitoBean
+    private ESService esService;
+
+    @MockitoBean
+    private FullSyncJobService fullSyncJobService;
+
+    private ReferenceConfig<ArticleSyncApi> reference;
+
+    private ArticleSyncApi api;
+
+    @DynamicPropertySource
+    static void dubboPort(DynamicPropertyRegistry registry) {
+        registry.add("dubbo.protocol.port", () -> PORT);
+    }
+
+    @BeforeEach
+    void setUp() {
+        reference = new ReferenceConfig<>();
+        reference.setInterface(ArticleSyncApi.class);
+        reference.setUrl("tri://localhost:" + PORT);
+        reference.setTimeout(5000);
+        api = reference.get();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reference.destroy();
+    }
+
+    @Test
+    void syncDocsDeduplicatesAndReturnsWrittenCount() throws Exception {
+        when(esService.syncByAids(List.of(3L, 1L))).thenReturn(bulkResult(2, 0, null));
+
+        SyncDocsResult result = api.syncDocs(new long[]{3L, 1L, 3L}).get(10, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getRequested());
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(0, result.getFailedAids().length);
+        assertNull(result.getMessage());
+        verify(esService).syncByAids(List.of(3L, 1L));
+
+        assertEquals(0, api.syncDocs(new long[0]).get(10, TimeUnit.SECONDS).getRequested());
+        verifyNoMoreInteractions(esService);
+    }
+
+    @Test
+    void syncDocsFailureIsReturnedInResult() throws Exception {
+        when(esService.syncByAids(List.of(7L))).thenThrow(new IOException("bulk rejected"));
+
+        SyncDocsResult result = api.syncDocs(new long[]{7L}).get(10, TimeUnit.SECONDS);
+        assertFalse(result.isSuccess());
+        assertEquals(0, result.getSuccessCount());
+        assertArrayEquals(new long[]{7L}, result.getFailedAids());
+        assertTrue(result.getMessage().contains("bulk rejected"), result.getMessage());
+        verify(esService).syncByAids(List.of(7L));
+    }
+
+    @Test
+    void syncDocsPartialFailureReturnsFailedAids() throws Exception {
+        when(esService.syncByAids(List.of(1L, 2L, 3L))).thenReturn(bulkResult(1, 1, new IOException("es unavailable"), "3", "2"));
+
+        SyncDocsResult result = api.syncDocs(new long[]{1L, 2L, 3L}).get(10, TimeUnit.SECONDS);
+        assertFalse(result.isSuccess());
+        assertEquals(3, result.getRequested());
+        assertEquals(1, result.getSuccessCount());
+        assertArrayEquals(new long[]{2L, 3L}, result.getFailedAids());
+        assertTrue(result.getMessage().contains("es unavailable"), result.getMessage());
+    }
+
+    @Test
+    void syncAllReturnsJobIdWithoutWaitingForCompletion() throws Exception {
+        FullSyncJob job = new FullSyncJob("job-1", true, false);
+        when(fullSyncJobService.trySubmit()).thenReturn(job);
+        when(fullSyncJobService.getJob("job-1")).thenReturn(job);
+
+        // 任务仍在执行，返回值立即可用
+        Map<String, Object> submitted = api.syncAll().get(10, TimeUnit.SECONDS);
+        assertEquals(true, submitted.get("success"));
+        assertEquals("job-1", submitted.get("jobId"));
+        assertEquals("RUNNING", ((Map<?, ?>) submitted.get("job")).get("state"));
+
+        Map<String, Object> polled = api.getSyncJob("job-1").get(10, TimeUnit.SECONDS);
+        assertEquals(true, polled.get("success"));
+        assertEquals("job-1", ((Map<?, ?>) polled.get("job")).get("jobId"));
+        assertEquals(false, api.getSyncJob("missing").get(10, TimeUnit.SECONDS).get("success"));
+    }
+
+    private static BulkResult bulkResult(int successCount, int requestFailures, Throwable lastError, String... failedIds) {
+        return new BulkResult(successCount, 0, 0, 1, 0L, 1L, requestFailures, lastError, Set.of(failedIds));
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.cjj.es.service;
+
+import com.cjj.es.entity.Article;
+import com.cjj.es.mapper.ArticleMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 重复全量同步：首次重建到版本索引，之后原地同步只写入内容变化的文档
+ * 数据库、ES与批量写入会话均为Mock，会话收到的条目立即按写入成功回调指纹存储
+ */
+class ESServiceFullSyncTest {
+
+    private final ArticleMapper articleMapper = mock(ArticleMapper.class);
+    private final BulkIndexService bulkIndexService = mock(BulkIndexService.class);
+    private final ArticleIndexManager articleIndexManager = mock(ArticleIndexManager.class);
+    private final FullSyncExtractor fullSyncExtractor = mock(FullSyncExtractor.class);
+    private final SyncMetrics syncMetrics = mock(SyncMetrics.class);
+
+    private DocumentFingerprintStore fingerprintStore;
+    private ESService esService;
+
+    // 每次全量同步写入会话的条目
+    private final List<BulkItem> written = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        fingerprintStore = new DocumentFingerprintStore();
+        ReflectionTestUtils.setField(fingerprintStore, "syncMetrics", syncMetrics);
+        ReflectionTestUtils.setField(fingerprintStore, "enabled", true);
+        ReflectionTestUtils.setField(fingerprintStore, "initialCapacity", 16);
+        fingerprintStore.init();
+
+        esService = new ESService();
+        ReflectionTestUtils.setField(esService, "articleMapper", articleMapper);
+        ReflectionTestUtils.setField(esService, "bulkIndexService", bulkIndexService);
+        ReflectionTestUtils.setField(esService, "articleIndexManager", articleIndexManager);
+        ReflectionTestUtils.setField(esService, "fullSyncExtractor", fullSyncExtractor);
+        ReflectionTestUtils.setField(esService, "syncMetrics", syncMetrics);
+        ReflectionTestUtils.setField(esService, "fingerprintStore", fingerprintStore);
+        ReflectionTestUtils.setField(esService, "syncBatchSize", 1000);
+        ReflectionTestUtils.setField(esService, "checkpointIntervalBatches", 20);
+        ReflectionTestUtils.setField(esService, "blueGreenEnabled", true);
+
+        when(syncMetrics.timeDbRead(anyString(), any())).thenAnswer(i -> ((Supplier<List<?>>) i.getArgument(1)).get());
+        when(articleMapper.selectChangedSince(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+        when(articleIndexManager.createNextVersion()).thenReturn("article_index_v1");
+    }
+
+    @Test
+    void repeatedFullSyncSkipsUnchangedDocuments() throws Exception {
+        // 别名尚未指向版本索引：重建到article_index_v1，全部写入
+        when(articleIndexManager.isAliasOnVersion()).thenReturn(false);
+        Map<String, Object> first = fullSync(article(1, "一"), article(2, "二"), article(3, "三"));
+        assertEquals(true, first.get("success"));
+        assertEquals(true, first.get("rebuild"));
+        assertEquals(3, written.size());
+        assertTrue(written.stream().allMatch(item -> "article_index_v1".equals(item.getIndex())));
+        verify(articleIndexManager).promote("article_index_v1");
+
+        // 别名已指向版本索引：原地同步，只有内容变化的文章写入别名
+        when(articleIndexManager.isAliasOnVersion()).thenReturn(true);
+        Map<String, Object> second = fullSync(article(1, "一"), article(2, "二（已修改）"), article(3, "三"));
+        assertEquals(true, second.get("success"));
+        assertEquals(false, second.get("rebuild"));
+        assertEquals(2, second.get("unchangedCount"));
+        assertEquals(1, written.size());
+        assertEquals("2", written.get(0).getId());
+        assertEquals(ArticleIndexManager.ALIAS, written.get(0).getIndex());
+        verify(articleIndexManager).createNextVersion();
+
+        // 内容不再变化时全部跳过
+        Map<String, Object> third = fullSync(article(1, "一"), article(2, "二（已修改）"), article(3, "三"));
+        assertEquals(3, third.get("unchangedCount"));
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void abandonedRebuildKeepsAliasFingerprints() throws Exception {
+        when(articleIndexManager.isAliasOnVersion()).thenReturn(false);
+        fullSync(article(1, "一"));
+
+        // 要求重建但写入失败，版本索引被放弃，别名中的指纹仍然有效
+        when(articleIndexManager.isAliasOnVersion()).thenReturn(true);
+        when(articleIndexManager.createNextVersion()).thenReturn("article_index_v2");
+        doThrow(new IOException("promote failed")).when(articleIndexManager).promote("article_index_v2");
+        Map<String, Object> failed = fullSync(new FullSyncJob("rebuild", false, true), article(1, "一（已修改）"));
+        assertEquals(false, failed.get("success"));
+        verify(articleIndexManager).deleteVersion("article_index_v2");
+
+        Map<String, Object> inPlace = fullSync(article(1, "一"));
+        assertEquals(1, inPlace.get("unchangedCount"));
+        assertTrue(written.isEmpty());
+    }
+
+    private Map<String, Object> fullSync(Article... articles) throws Exception {
+        return fullSync(new FullSyncJob("job", false, false), articles);
+    }
+
+    private Map<String, Object> fullSync(FullSyncJob job, Article... articles) throws Exception {
+        written.clear();
+        FullSyncExtractor.Partition partition = new FullSyncExtractor.Partition(0, 1, articles.length, 0);
+        when(fullSyncExtractor.plan()).thenReturn(List.of(partition));
+        FullSyncExtractor.Extraction extraction = mock(FullSyncExtractor.Extraction.class);
+        when(extraction.next()).thenReturn(new FullSyncExtractor.Batch(partition, List.of(articles)), (FullSyncExtractor.Batch) null);
+        when(fullSyncExtractor.start(anyList(), anyBoolean())).thenReturn(extraction);
+
+        BulkIndexService.BulkSession session = mock(BulkIndexService.BulkSession.class);
+        doAnswer(i -> {
+            BulkItem item = i.getArgument(0);
+            written.add(item);
+            fingerprintStore.onIndexed(item);
+            return null;
+        }).when(session).add(any());
+        when(session.finish()).thenAnswer(i -> new BulkResult(written.size(), 0, 0, 1, 0L, 1L, 0, null, Set.of()));
+        when(bulkIndexService.openSession()).thenReturn(session);
+
+        return esService.fullSyncToES(job);
+    }
+
+    private static Article article(long aid, String content) {
+        return new Article(aid, "标题" + aid, content);
+    }
+}
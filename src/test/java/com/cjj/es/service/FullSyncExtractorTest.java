@@ -0,0 +1,40 @@
+package com.cjj.es.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FullSyncExtractorTest {
+
+    @Test
+    void bucketRangesCoverWholeSpanWithoutGaps() {
+        long[][] buckets = FullSyncExtractor.bucketRanges(1, 100, 8);
+        assertEquals(1, buckets[0][0]);
+        assertEquals(100, buckets[buckets.length - 1][1]);
+        for (int i = 1; i < buckets.length; i++) {
+            assertEquals(buckets[i - 1][1] + 1, buckets[i][0]);
+        }
+
+        // 跨度小于桶数时每个aid一个桶
+        assertEquals(3, FullSyncExtractor.bucketRanges(5, 7, 8).length);
+    }
+
+    @Test
+    void splitByCountsBalancesSkewedBuckets() {
+        long[][] buckets = FullSyncExtractor.bucketRanges(1, 800, 8);
+        // 数据集中在前两个桶
+        long[] counts = {400, 400, 10, 10, 10, 10, 10, 10};
+        List<long[]> ranges = FullSyncExtractor.splitByCounts(buckets, counts, 4);
+
+        assertTrue(ranges.size() <= 4);
+        assertEquals(1, ranges.get(0)[0]);
+        assertEquals(100, ranges.get(0)[1]);
+        assertEquals(101, ranges.get(1)[0]);
+        assertEquals(800, ranges.get(ranges.size() - 1)[1]);
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1)[1] + 1, ranges.get(i)[0]);
+        }
+    }
+}
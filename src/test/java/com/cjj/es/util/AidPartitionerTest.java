@@ -0,0 +1,54 @@
+package com.cjj.es.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AidPartitionerTest {
+
+    @Test
+    void blocksAreSpreadRoundRobinAcrossPartitions() {
+        assertEquals(0, AidPartitioner.partitionOf(1, 100, 4));
+        assertEquals(0, AidPartitioner.partitionOf(99, 100, 4));
+        assertEquals(1, AidPartitioner.partitionOf(100, 100, 4));
+        assertEquals(3, AidPartitioner.partitionOf(399, 100, 4));
+        assertEquals(0, AidPartitioner.partitionOf(400, 100, 4));
+    }
+
+    @Test
+    void runsBreakAtBlockBoundariesAndSizeLimit() {
+        long[] aids = {95, 96, 97, 98, 99, 100, 101, 102, 350, 351};
+        List<int[]> runs = AidPartitioner.runs(aids, 100, 3);
+
+        assertArrayEquals(new int[]{0, 3}, runs.get(0));
+        assertArrayEquals(new int[]{3, 5}, runs.get(1));
+        assertArrayEquals(new int[]{5, 8}, runs.get(2));
+        assertArrayEquals(new int[]{8, 10}, runs.get(3));
+        assertEquals(4, runs.size());
+        for (int[] run : runs) {
+            int partition = AidPartitioner.partitionOf(aids[run[0]], 100, 4);
+            for (int i = run[0]; i < run[1]; i++) {
+                assertEquals(partition, AidPartitioner.partitionOf(aids[i], 100, 4));
+            }
+        }
+        assertTrue(AidPartitioner.runs(new long[0], 100, 3).isEmpty());
+    }
+
+    @Test
+    void rangesBreakAtBlockBoundariesAndSizeLimit() {
+        List<long[]> ranges = AidPartitioner.ranges(95, 260, 100, 60);
+
+        assertArrayEquals(new long[]{95, 99}, ranges.get(0));
+        assertArrayEquals(new long[]{100, 159}, ranges.get(1));
+        assertArrayEquals(new long[]{160, 199}, ranges.get(2));
+        assertArrayEquals(new long[]{200, 259}, ranges.get(3));
+        assertArrayEquals(new long[]{260, 260}, ranges.get(4));
+        assertEquals(5, ranges.size());
+        for (long[] range : ranges) {
+            assertEquals(AidPartitioner.blockOf(range[0], 100), AidPartitioner.blockOf(range[1], 100));
+        }
+        assertTrue(AidPartitioner.ranges(10, 9, 100, 60).isEmpty());
+    }
+}
@@ -0,0 +1,34 @@
+package com.cjj.es.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlTextCleanerTest {
+
+    @Test
+    void stripsTagsAndNormalizesWhitespace() {
+        assertEquals("", HtmlTextCleaner.clean(null));
+        assertEquals("", HtmlTextCleaner.clean("  <p> </p>\n"));
+        assertEquals("第一段 第二段 加粗文字", HtmlTextCleaner.clean("<p>第一段</p><p>第二段</p>\n<p> <b>加粗</b>文字 </p>"));
+        assertEquals("1 < 2 and a <-> b", HtmlTextCleaner.clean("1 < 2 and a <-> b"));
+        assertEquals("link", HtmlTextCleaner.clean("<a href=\"/x?a=1&b=>2\" title='>'>link</a>"));
+    }
+
+    @Test
+    void decodesEntitiesBeforeCollapsingWhitespace() {
+        assertEquals("a b", HtmlTextCleaner.clean("a&nbsp;&nbsp; &nbsp;b"));
+        assertEquals("<tag> & \"q\" ©", HtmlTextCleaner.clean("&lt;tag&gt; &amp; &quot;q&quot; &copy;"));
+        assertEquals("中A😀", HtmlTextCleaner.clean("&#20013;&#x41;&#x1F600;"));
+        assertEquals("�", HtmlTextCleaner.clean("&#0;"));
+        assertEquals("&unknown; & &#xZZ; AT&T", HtmlTextCleaner.clean("&unknown; & &#xZZ; AT&T"));
+    }
+
+    @Test
+    void dropsScriptStyleAndComments() {
+        String html = "<style type=\"text/css\">p { color: red; }</style>正文<!-- 注释 <p>x</p> -->内容"
+                + "<SCRIPT>var a = 1 < 2 && '</p>';</Script ><p>结尾</p>";
+        assertEquals("正文内容 结尾", HtmlTextCleaner.clean(html));
+        assertEquals("正文", HtmlTextCleaner.clean("正文<script>never closed"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.cjj.es.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongBooleanCacheTest {
+
+    @Test
+    void putGetRemoveAndConditionalFill() {
+        LongBooleanCache cache = new LongBooleanCache(16);
+        assertEquals(LongBooleanCache.UNKNOWN, cache.get(7L));
+
+        cache.put(7L, true);
+        assertEquals(LongBooleanCache.TRUE, cache.get(7L));
+        cache.put(7L, false);
+        assertEquals(LongBooleanCache.FALSE, cache.get(7L));
+        cache.remove(7L);
+        assertEquals(LongBooleanCache.UNKNOWN, cache.get(7L));
+
+        // 查询期间发生写入，较旧的查询结果不覆盖
+        long stamp = cache.stamp(9L);
+        cache.put(9L, true);
+        assertFalse(cache.putIfUnchanged(9L, false, stamp));
+        assertEquals(LongBooleanCache.TRUE, cache.get(9L));
+        assertTrue(cache.putIfUnchanged(9L, false, cache.stamp(9L)));
+        assertEquals(LongBooleanCache.FALSE, cache.get(9L));
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get(0L));
+    }
+
+    @Test
+    void collidingKeysEvictEachOtherWithoutFalseHits() {
+        LongBooleanCache cache = new LongBooleanCache(4);
+        for (long key = 1; key <= 1000; key++) {
+            cache.put(key, key % 2 == 0);
+        }
+        int cached = 0;
+        for (long key = 1; key <= 1000; key++) {
+            int value = cache.get(key);
+            if (value != LongBooleanCache.UNKNOWN) {
+                cached++;
+                assertEquals(key % 2 == 0 ? LongBooleanCache.TRUE : LongBooleanCache.FALSE, value);
+            }
+        }
+        assertTrue(cached <= cache.capacity());
+        cache.clear();
+        assertEquals(LongBooleanCache.UNKNOWN, cache.get(1000L));
+    }
+}
@@ -0,0 +1,54 @@
+package com.cjj.es.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void putGetOverwriteAndRemove() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        assertEquals(-1L, map.get(1L, -1L));
+        map.put(1L, 10L);
+        map.put(2L, 20L);
+        map.put(1L, 11L);
+        assertEquals(2, map.size());
+        assertEquals(11L, map.get(1L, -1L));
+        assertTrue(map.remove(1L));
+        assertFalse(map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertEquals(20L, map.get(2L, -1L));
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, 1L));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        // 小键空间保证大量冲突、扩容和回填删除
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                long value = random.nextLong();
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5000; key++) {
+            assertEquals(expected.getOrDefault(key, 0L), map.get(key, 0L));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(1L));
+    }
+}